@@ -0,0 +1,123 @@
+package com.ibs.userservice.benchmark;
+
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.SigningKey;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.RoleRepository;
+import com.ibs.userservice.repository.SigningKeyRepository;
+import com.ibs.userservice.repository.UserReportRepository;
+import com.ibs.userservice.security.JwtKeyManager;
+import com.ibs.userservice.security.SigningKeyCipher;
+import com.ibs.userservice.service.RoleRegistry;
+import com.ibs.userservice.service.UserCountCache;
+import com.ibs.userservice.service.UserReportCache;
+import com.ibs.userservice.service.UserWriteVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Fixtures shared by the benchmarks. Repositories are plain JDK proxies so no mocking framework sits in the
+ * measured path.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    private static final Role CANDIDATE = new Role(2, "CANDIDATE", null);
+
+    static User user(int id) {
+        User user = new User();
+        user.setUserId(id);
+        user.setUserName("user" + id);
+        user.setUserPhone("98765" + String.format("%05d", id));
+        user.setEmail("user" + id + "@example.com");
+        user.setPasswordHash("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7iCkF8v1ye3b5fKh3x0e5yG");
+        user.setFullName("User Number " + id);
+        user.setActive(true);
+        user.setRole(CANDIDATE);
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 1, 10, 0).plusMinutes(id));
+        user.setUpdatedAt(LocalDateTime.of(2025, 6, 1, 10, 0).plusMinutes(id));
+        return user;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    /**
+     * Repository whose report query always answers with the given users as one page.
+     */
+    static UserReportRepository reportRepository(List<User> users) {
+        List<UserReportRow> rows = users.stream()
+                .map(u -> new UserReportRow(u.getUserId(), u.getFullName(), u.getEmail(), u.getUserPhone(),
+                        u.getRole().getRoleName(), u.isActive(), u.getCreatedAt()))
+                .toList();
+        return new UserReportRepository() {
+            @Override
+            public Page<UserReportRow> findRows(Role role, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+                return new PageImpl<>(rows, PageRequest.of(0, rows.size()), rows.size());
+            }
+        };
+    }
+
+    /**
+     * Registry loaded with the role the fixture users have.
+     */
+    static RoleRegistry roleRegistry() {
+        RoleRepository repository = (RoleRepository) Proxy.newProxyInstance(RoleRepository.class.getClassLoader(),
+                new Class<?>[]{RoleRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && args == null) {
+                        return List.of(CANDIDATE);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        RoleRegistry roleRegistry = new RoleRegistry(repository);
+        roleRegistry.refresh();
+        return roleRegistry;
+    }
+
+    static UserCountCache countCache() {
+        return new UserCountCache(100, 60, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Report cache turned off, so report benchmarks measure the query and mapping on every call.
+     */
+    static UserReportCache reportCache() {
+        return new UserReportCache(0, 60, new UserWriteVersion(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Key manager over an in-memory key table, with its first key already created.
+     */
+    static JwtKeyManager keyManager() {
+        List<SigningKey> keys = new ArrayList<>();
+        SigningKeyRepository repository = (SigningKeyRepository) Proxy.newProxyInstance(SigningKeyRepository.class.getClassLoader(),
+                new Class<?>[]{SigningKeyRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllByOrderByActivatesAtAsc" -> List.copyOf(keys);
+                    case "save" -> {
+                        keys.add((SigningKey) args[0]);
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        JwtKeyManager keyManager = new JwtKeyManager(repository, new SigningKeyCipher(Base64.getEncoder().encodeToString(new byte[32])), Long.MAX_VALUE / 4, 3600_000L, 3600_000L);
+        keyManager.init();
+        return keyManager;
+    }
+}
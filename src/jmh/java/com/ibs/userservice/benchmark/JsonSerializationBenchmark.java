@@ -0,0 +1,73 @@
+package com.ibs.userservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.enums.ReportLayout;
+import com.ibs.userservice.mapper.UserMapper;
+import com.ibs.userservice.service.UserReportJsonWriter;
+import com.ibs.userservice.service.UserReportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization with an ObjectMapper configured the way Spring Boot configures the web one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private UserResponseDTO user;
+    private ReportResponseDto report;
+    private UserReportJsonWriter reportWriter;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        user = UserMapper.toResponseDTO(BenchmarkData.user(42));
+        UserReportService reportService = new UserReportService(BenchmarkData.reportRepository(BenchmarkData.users(pageSize)), BenchmarkData.roleRegistry(), BenchmarkData.countCache(),
+                BenchmarkData.reportCache());
+        reportWriter = new UserReportJsonWriter(objectMapper);
+        report = reportService.getUserReport("candidate", LocalDateTime.MIN, LocalDateTime.MAX, 1, pageSize, null, null, CountMode.EXACT);
+    }
+
+    @Benchmark
+    public byte[] userResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] reportResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(report);
+    }
+
+    @Benchmark
+    public byte[] reportRowsWriter() throws IOException {
+        return writeReport(ReportLayout.ROWS);
+    }
+
+    @Benchmark
+    public byte[] reportColumnarWriter() throws IOException {
+        return writeReport(ReportLayout.COLUMNAR);
+    }
+
+    private byte[] writeReport(ReportLayout layout) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportWriter.write(report, layout, out);
+        return out.toByteArray();
+    }
+}
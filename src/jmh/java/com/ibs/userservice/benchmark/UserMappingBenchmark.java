@@ -0,0 +1,44 @@
+package com.ibs.userservice.benchmark;
+
+import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.mapper.UserMapper;
+import com.ibs.userservice.service.UserReportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping for single users and for one page of the user report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private User user;
+    private UserReportService reportService;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkData.user(42);
+        reportService = new UserReportService(BenchmarkData.reportRepository(BenchmarkData.users(pageSize)), BenchmarkData.roleRegistry(), BenchmarkData.countCache(),
+                BenchmarkData.reportCache());
+    }
+
+    @Benchmark
+    public UserResponseDTO toResponseDTO() {
+        return UserMapper.toResponseDTO(user);
+    }
+
+    @Benchmark
+    public ReportResponseDto userReportPage() {
+        return reportService.getUserReport("candidate", LocalDateTime.MIN, LocalDateTime.MAX, 1, pageSize, null, null, CountMode.EXACT);
+    }
+}
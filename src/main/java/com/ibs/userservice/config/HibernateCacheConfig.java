@@ -0,0 +1,78 @@
+package com.ibs.userservice.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache for User and Role, held in Caffeine through JCache. Only active when
+ * user.cache.secondLevel.enabled is true; sizes and lifetimes of each region come from the profile properties.
+ * Every region reports hits, misses, puts and evictions as cache.* metrics tagged with its name.
+ * <p>
+ * The users region only serves entity loads by id: getUserById, updateUser and patchUser. Other user reads are
+ * DTO projection queries, which bypass it; of those only the cacheable by-role list uses the query cache.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user.cache.secondLevel.enabled", havingValue = "true")
+public class HibernateCacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String ROLES_REGION = "roles";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${user.cache.users.maxSize}") long usersMaxSize,
+                                              @Value("${user.cache.users.ttlSeconds}") long usersTtlSeconds,
+                                              @Value("${user.cache.roles.maxSize}") long rolesMaxSize,
+                                              @Value("${user.cache.queries.maxSize}") long queriesMaxSize,
+                                              @Value("${user.cache.queries.ttlSeconds}") long queriesTtlSeconds,
+                                              MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        createRegion(cacheManager, meterRegistry, USERS_REGION, usersMaxSize, usersTtlSeconds);
+        // Roles only change through the registry refresh, so they are kept until evicted
+        createRegion(cacheManager, meterRegistry, ROLES_REGION, rolesMaxSize, 0);
+        createRegion(cacheManager, meterRegistry, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, queriesMaxSize, queriesTtlSeconds);
+        // A query result is only valid while the timestamps of its tables are held, so these never expire
+        createRegion(cacheManager, meterRegistry, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 0, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create-warn");
+        };
+    }
+
+    /**
+     *
+     * @param maxSize    maximum entries, or 0 for unbounded
+     * @param ttlSeconds lifetime after write, or 0 to keep entries until evicted
+     */
+    private static void createRegion(CacheManager cacheManager, MeterRegistry meterRegistry, String name, long maxSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxSize > 0 ? OptionalLong.of(maxSize) : OptionalLong.empty());
+        configuration.setExpireAfterWrite(ttlSeconds > 0 ? OptionalLong.of(Duration.ofSeconds(ttlSeconds).toNanos()) : OptionalLong.empty());
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (cacheManager.getCache(name) != null) {
+            cacheManager.destroyCache(name);
+        }
+        JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(name, configuration));
+    }
+}
@@ -1,10 +1,25 @@
 package com.ibs.userservice.config;
 
 import com.ibs.userservice.security.AppUserDetailsService;
+import com.ibs.userservice.security.BCryptStrengthCalibrator;
+import com.ibs.userservice.security.BoundedPasswordEncoder;
+import com.ibs.userservice.security.CachingGrantedAuthoritiesConverter;
+import com.ibs.userservice.security.CachingJwtDecoder;
+import com.ibs.userservice.security.JwtKeyManager;
+import com.ibs.userservice.security.CostAwareBCryptPasswordEncoder;
+import com.ibs.userservice.security.PasswordHashingExecutor;
+import com.ibs.userservice.security.RehashingAuthenticationProvider;
+import com.ibs.userservice.security.RevokedTokenValidator;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,23 +28,24 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
-    @Value("${security.jwt.secret}")
-    private String jwtSecret;
+    @Value("${security.jwt.decodeCache.enabled}")
+    private boolean decodeCacheEnabled;
+
+    @Value("${security.jwt.decodeCache.maxSize}")
+    private long decodeCacheMaxSize;
 
     private final AppUserDetailsService userDetailsService;
 
@@ -44,19 +60,27 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor, BCryptStrengthCalibrator strengthCalibrator) {
+        return new BoundedPasswordEncoder(new CostAwareBCryptPasswordEncoder(strengthCalibrator.getStrength()), passwordHashingExecutor);
+    }
+
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder, PasswordHashingExecutor passwordHashingExecutor) {
+        return new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, userDetailsService, passwordHashingExecutor);
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .cors(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth ->
                         auth.requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**",
-                                "/actuator/**", "/api/v1/auth/**").permitAll().anyRequest().authenticated())
+                                        "/actuator/health", "/actuator/health/**", "/api/v1/auth/**", "/.well-known/jwks.json").permitAll()
+                                // Health stays open for probes; metrics and info expose internals such as cache and throttling counters
+                                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+                                .anyRequest().authenticated())
                 .oauth2ResourceServer(oauth2 ->
-                        oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
+                        oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter)))
                 .sessionManagement(sess ->
                         sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS)).
                 userDetailsService(userDetailsService);
@@ -64,19 +88,30 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        SecretKey secretKey = new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(secretKey).build();
+    public JwtDecoder jwtDecoder(JwtKeyManager jwtKeyManager, RevokedTokenValidator revokedTokenValidator, MeterRegistry meterRegistry) {
+        // Verifies against the in-memory key ring by kid, the same keys published on /.well-known/jwks.json
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.ES256, jwtKeyManager.jwkSource()));
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), revokedTokenValidator));
+        if (!decodeCacheEnabled) {
+            return decoder;
+        }
+        return new CachingJwtDecoder(decoder, revokedTokenValidator, decodeCacheMaxSize, meterRegistry);
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public JwtAuthenticationConverter jwtAuthenticationConverter(MeterRegistry meterRegistry) {
         JwtGrantedAuthoritiesConverter converter = new JwtGrantedAuthoritiesConverter();
         converter.setAuthoritiesClaimName("roles"); // your claim name
         converter.setAuthorityPrefix(""); // because your roles are like "ADMIN", not "ROLE_ADMIN"
 
         JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
-        jwtConverter.setJwtGrantedAuthoritiesConverter(converter);
+        if (decodeCacheEnabled) {
+            jwtConverter.setJwtGrantedAuthoritiesConverter(new CachingGrantedAuthoritiesConverter(converter, decodeCacheMaxSize, meterRegistry));
+        } else {
+            jwtConverter.setJwtGrantedAuthoritiesConverter(converter);
+        }
         return jwtConverter;
     }
 
@@ -1,22 +1,28 @@
 package com.ibs.userservice.controller;
 
 import com.ibs.userservice.dtos.requestDtos.AuthRequest;
+import com.ibs.userservice.dtos.requestDtos.RefreshTokenRequest;
 import com.ibs.userservice.dtos.responseDtos.AuthResponse;
+import com.ibs.userservice.entity.User;
 import com.ibs.userservice.security.AppUserDetails;
 import com.ibs.userservice.security.JwtUtil;
-import lombok.AllArgsConstructor;
+import com.ibs.userservice.security.LoginAttemptService;
+import com.ibs.userservice.security.LoginRateLimiter;
+import com.ibs.userservice.security.TokenRevocationService;
+import com.ibs.userservice.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -25,34 +31,93 @@ public class AuthController {
 
     private final AuthenticationManager authManager;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final LoginAttemptService loginAttemptService;
     /**
      *
-     * @param request is the input object with valid username and password
+     * @param request     is the input object with valid username and password
+     * @param httpRequest used for the caller's address, which is rate limited. Behind the gateway this is the
+     *                    client address taken from X-Forwarded-For (server.forward-headers-strategy=native), which
+     *                    Tomcat only trusts from proxies in server.tomcat.remoteip.internal-proxies, by default the
+     *                    private and loopback ranges
      * @return token
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        // A missing username would otherwise skip the username bucket and the lockout entirely
+        if (request.getUsername() == null || request.getUsername().isBlank()) {
+            throw new IllegalArgumentException("Username is required");
+        }
+        // Checked before any password work, so rejected callers cost no BCrypt time
+        loginRateLimiter.acquire(request.getUsername(), httpRequest.getRemoteAddr());
         try {
             log.info("Entering into login in AuthController {}", request);
-            Authentication authentication = authManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(), request.getPassword())
-            );
+            Authentication authentication;
+            try {
+                authentication = authManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                request.getUsername(), request.getPassword())
+                );
+            } catch (BadCredentialsException e) {
+                loginAttemptService.loginFailed(request.getUsername());
+                throw e;
+            }
+            loginAttemptService.loginSucceeded(request.getUsername());
             UserDetails user = (UserDetails) authentication.getPrincipal();
             String token = jwtUtil.generateToken(user);
-            String role = user.getAuthorities().stream().findFirst().map(GrantedAuthority::getAuthority).orElse("USER");
             log.info("Successfully generated token and exiting from login");
             AppUserDetails appUserDetails = (AppUserDetails) authentication.getPrincipal();
-            var userDet = appUserDetails.user();
-            Integer userId = userDet.getUserId();
-            String userName = userDet.getUserName();
-            String userFullName = userDet.getFullName();
-
+            String refreshToken = refreshTokenService.issue(appUserDetails.user());
 
-            return ResponseEntity.ok(new AuthResponse(token,role,userId,userName,userFullName));
+            return ResponseEntity.ok(toAuthResponse(user, appUserDetails.user(), token, refreshToken));
         } catch (Exception e) {
             log.error("Exception occurred in login {}", e.getMessage());
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token, without checking the password.
+     *
+     * @param request contains the refresh token issued by login or by a previous refresh
+     * @return token
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshTokenRequest request) {
+        log.info("Entering into refresh in AuthController");
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        AppUserDetails userDetails = new AppUserDetails(rotation.user());
+        String token = jwtUtil.generateToken(userDetails);
+        log.info("Successfully refreshed token and exiting from refresh");
+        return ResponseEntity.ok(toAuthResponse(userDetails, rotation.user(), token, rotation.refreshToken()));
+    }
+
+    /**
+     * Revokes the presented access token for the rest of its lifetime, and the refresh token if one is sent.
+     *
+     * @param authorization bearer access token to revoke
+     * @param request       optional refresh token to revoke
+     * @return String
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                         @RequestBody(required = false) RefreshTokenRequest request) {
+        log.info("Entering into logout in AuthController");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            jwtUtil.parseClaims(authorization.substring(7))
+                    .filter(claims -> claims.getId() != null)
+                    .ifPresent(claims -> tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant()));
+        }
+        if (request != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        return ResponseEntity.ok("Logged out successfully");
+    }
+
+    private static AuthResponse toAuthResponse(UserDetails userDetails, User user, String token, String refreshToken) {
+        String role = userDetails.getAuthorities().stream().findFirst().map(GrantedAuthority::getAuthority).orElse("USER");
+        return new AuthResponse(token, role, user.getUserId(), user.getUserName(), user.getFullName(), refreshToken);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ibs.userservice.controller;
+
+import com.ibs.userservice.security.JwtKeyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the public keys that verify our access tokens, so other services can check tokens locally.
+ */
+@RestController
+public class JwksController {
+
+    private final JwtKeyManager jwtKeyManager;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyManager jwtKeyManager,
+                          @Value("${security.jwt.keys.jwksMaxAgeSeconds}") long maxAgeSeconds) {
+        this.jwtKeyManager = jwtKeyManager;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    /**
+     *
+     * @return JWKS document, prebuilt in memory
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok().cacheControl(cacheControl).body(jwtKeyManager.jwksJson());
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,4 +24,10 @@ public class RoleController {
     public ResponseEntity<List<Role>> getAllRoles(){
         return ResponseEntity.ok(roleService.getAllRoles());
     }
+
+    @PostMapping("/refresh")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<Role>> refreshRoles(){
+        return ResponseEntity.ok(roleService.refreshRoles());
+    }
 }
@@ -1,22 +1,42 @@
 package com.ibs.userservice.controller;
 
+import com.ibs.userservice.dtos.requestDtos.UserBulkUpdateDTO;
 import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserDeleteResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserUpdateResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.ImportJobStatusDTO;
 import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.UserScrollResponseDTO;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.enums.ExportFormat;
+import com.ibs.userservice.service.UserBulkService;
+import com.ibs.userservice.service.UserExportService;
+import com.ibs.userservice.service.UserImportService;
+import com.ibs.userservice.service.UserScrollService;
 import com.ibs.userservice.service.UserService;
+import com.ibs.userservice.service.UserUpdateService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,6 +44,11 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserBulkService userBulkService;
+    private final UserImportService userImportService;
+    private final UserUpdateService userUpdateService;
+    private final UserScrollService userScrollService;
+    private final UserExportService userExportService;
 
     /**
      *
@@ -36,16 +61,68 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(dto));
     }
     /**
+     * Rows are validated individually; invalid or conflicting rows are reported and the rest are created.
+     * Passwords are hashed before the response, so batches are capped at user.bulk.maxCreateRows; use /import for more.
      *
-     * @return List<UserResponseDTO>
+     * @param dtos users to create
+     * @return BulkUserResponseDTO with one result per row
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkUserResponseDTO> createUsers(@RequestBody List<UserRequestDTO> dtos) {
+        return ResponseEntity.ok(userBulkService.createUsers(dtos));
+    }
+    /**
+     * The file is imported in the background; poll the returned location for progress.
+     *
+     * @param file CSV with a header row naming the user fields
+     * @return ImportJobStatusDTO of the queued job
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobStatusDTO> importUsers(@RequestParam("file") MultipartFile file) {
+        ImportJobStatusDTO status = userImportService.startImport(file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/users/import/" + status.getJobId()))
+                .body(status);
+    }
+    /**
+     *
+     * @param jobId id returned when the import was started
+     * @return ImportJobStatusDTO, or 404 if the job is unknown or expired
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobStatusDTO> getImportStatus(@PathVariable String jobId) {
+        return ResponseEntity.of(userImportService.getStatus(jobId));
+    }
+    /**
+     *
+     * @param countMode EXACT counts every page, CACHED reuses a recent total, NONE returns a slice without one
+     * @return Page<UserResponseDTO>, or a Slice for CountMode.NONE
      */
     @PreAuthorize("hasAnyAuthority('ADMIN', 'HR', 'PANEL')")
     @GetMapping
-    public Page<UserResponseDTO> getAllUsers(
+    public Slice<UserResponseDTO> getAllUsers(
             @RequestParam(defaultValue = "0") int page ,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "EXACT") CountMode countMode) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("userId").ascending());
-        return userService.getAllUsers(pageable);
+        return userService.getAllUsers(pageable, countMode);
+    }
+    /**
+     * Keyset paging in userId order; unlike page numbers, the cost of a slice does not grow with its depth.
+     *
+     * @param after nextCursor of the previous slice, omitted for the first
+     * @param size  users per slice
+     * @return UserScrollResponseDTO
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR', 'PANEL')")
+    @GetMapping("/scroll")
+    public ResponseEntity<UserScrollResponseDTO> scrollUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(userScrollService.getUsers(after, size));
     }
 
     /**
@@ -69,6 +146,29 @@ public class UserController {
     public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Integer id, @Valid @RequestBody UserRequestDTO dto) {
         return ResponseEntity.ok(userService.updateUser(id, dto));
     }
+    /**
+     * JSON merge patch: only the fields present are changed, and only their columns are written.
+     *
+     * @param id userid
+     * @param patch fields to change
+     * @return UserResponseDTO
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR', 'PANEL')")
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserResponseDTO> patchUser(@PathVariable Integer id, @RequestBody Map<String, Object> patch) {
+        return ResponseEntity.ok(userUpdateService.patchUser(id, patch));
+    }
+    /**
+     * Applies one role or active change to the listed users, or to all users matching the filter.
+     *
+     * @param dto the change and the users it applies to
+     * @return BulkUserUpdateResponseDTO with the number of users changed
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @PatchMapping
+    public ResponseEntity<BulkUserUpdateResponseDTO> updateUsers(@RequestBody UserBulkUpdateDTO dto) {
+        return ResponseEntity.ok(userUpdateService.updateUsers(dto));
+    }
     /**
      *
      * @param id userid
@@ -80,17 +180,43 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.ok("User deleted successfully");
     }
+    /**
+     *
+     * @param ids userids
+     * @return BulkUserDeleteResponseDTO with the number of users deleted
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @DeleteMapping
+    public ResponseEntity<BulkUserDeleteResponseDTO> deleteUsers(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(userService.deleteUsers(ids));
+    }
 
     @PreAuthorize("hasAnyAuthority('ADMIN', 'HR', 'PANEL')")
     @GetMapping("/role/{role}")
-    public ResponseEntity<Page<UserResponseDTO>> getUsersByRole(
+    public ResponseEntity<Slice<UserResponseDTO>> getUsersByRole(
             @PathVariable String role,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "EXACT") CountMode countMode) {
 
-        Page<UserResponseDTO> response = userService.getUsersByRole(role, page, size);
+        Slice<UserResponseDTO> response = userService.getUsersByRole(role, page, size, countMode);
         return ResponseEntity.ok(response);
     }
+    /**
+     *
+     * @param role  role of the users
+     * @param after nextCursor of the previous slice, omitted for the first
+     * @param size  users per slice
+     * @return UserScrollResponseDTO
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR', 'PANEL')")
+    @GetMapping("/role/{role}/scroll")
+    public ResponseEntity<UserScrollResponseDTO> scrollUsersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(userScrollService.getUsersByRole(role, after, size));
+    }
     @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
     @GetMapping("/all/role/{role}")
     public ResponseEntity<List<UserResponseDTO>> getUsersByRoleWithoutPagination(
@@ -108,11 +234,25 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * All users as a JSON array, written while they are read rather than collected first.
+     *
+     * @return StreamingResponseBody
+     */
     @PreAuthorize("hasAnyAuthority('ADMIN', 'HR','PANEL')")
     @GetMapping("/all")
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        List<UserResponseDTO> response = userService.getAllUsers();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        return export(ExportFormat.JSON, false);
+    }
+    /**
+     *
+     * @param format JSON, NDJSON or CSV
+     * @return StreamingResponseBody, sent as an attachment
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return export(format, true);
     }
     @PreAuthorize("hasAnyAuthority('ADMIN', 'HR','PANEL')")
     @GetMapping("/panelists/pending")
@@ -120,4 +260,13 @@ public class UserController {
         List<UserResponseDTO> pending = userService.getPendingPanelists();
         return ResponseEntity.ok(pending);
     }
+
+    private ResponseEntity<StreamingResponseBody> export(ExportFormat format, boolean attachment) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.parseMediaType(format.getMediaType()));
+        if (attachment) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("users." + format.getExtension()).build().toString());
+        }
+        return response.body(out -> userExportService.export(format, out));
+    }
 }
\ No newline at end of file
@@ -1,12 +1,31 @@
 package com.ibs.userservice.controller;
 
+import com.ibs.userservice.dtos.responseDtos.ReportExportStatusDTO;
 import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.dtos.responseDtos.UserStatsSummaryDTO;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.enums.ReportLayout;
+import com.ibs.userservice.exception.ResourceNotFoundException;
+import com.ibs.userservice.service.UserReportExportService;
+import com.ibs.userservice.service.UserReportJsonWriter;
 import com.ibs.userservice.service.UserReportService;
+import com.ibs.userservice.service.UserStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @RestController
@@ -15,9 +34,19 @@ import java.time.LocalDateTime;
 public class UserReportController {
 
     private final UserReportService userReportService;
+    private final UserReportExportService userReportExportService;
+    private final UserReportJsonWriter userReportJsonWriter;
+    private final UserStatsService userStatsService;
 
+    /**
+     * The page is read before the response starts, so errors still map to a status; it is then written by
+     * the streaming report writer.
+     *
+     * @param layout ROWS for one object per user, COLUMNAR for the column names once and an array per user
+     * @return StreamingResponseBody with the report JSON
+     */
     @GetMapping("/report")
-    public ResponseEntity<ReportResponseDto> getUserReport(
+    public ResponseEntity<StreamingResponseBody> getUserReport(
             @RequestParam String role,
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -26,11 +55,89 @@ public class UserReportController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "25") int size,
             @RequestParam(required = false) String sortField,
-            @RequestParam(defaultValue = "asc") String sortDir
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "EXACT") CountMode countMode,
+            @RequestParam(defaultValue = "ROWS") ReportLayout layout
     ) {
         ReportResponseDto reportResponse = userReportService.getUserReport(
-                role, startDate, endDate, page, size, sortField, sortDir
+                role, startDate, endDate, page, size, sortField, sortDir, countMode
         );
-        return ResponseEntity.ok(reportResponse);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> userReportJsonWriter.write(reportResponse, layout, out));
+    }
+
+    /**
+     * Dashboard counts from the maintained rollup, without reading users.
+     *
+     * @param from first sign-up day
+     * @param to   last sign-up day
+     * @return UserStatsSummaryDTO
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsSummaryDTO> getUserStats(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(userStatsService.getSummary(from, to));
+    }
+
+    /**
+     * Exports every user matching the report filter in the background; poll the returned location for progress.
+     *
+     * @param role      user role
+     * @param startDate start date
+     * @param endDate   end date
+     * @param gzip      whether to gzip the CSV
+     * @return ReportExportStatusDTO of the queued job
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @PostMapping("/report/exports")
+    public ResponseEntity<ReportExportStatusDTO> startReportExport(
+            @RequestParam String role,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        ReportExportStatusDTO status = userReportExportService.startExport(role, startDate, endDate, gzip);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/users/report/exports/" + status.getJobId()))
+                .body(status);
+    }
+
+    /**
+     *
+     * @param jobId id returned when the export was started
+     * @return ReportExportStatusDTO, or 404 if the job is unknown or expired
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @GetMapping("/report/exports/{jobId}")
+    public ResponseEntity<ReportExportStatusDTO> getReportExportStatus(@PathVariable String jobId) {
+        return ResponseEntity.of(userReportExportService.getStatus(jobId));
+    }
+
+    /**
+     *
+     * @param jobId id returned when the export was started
+     * @return the CSV file, or 409 while the export is still running or if it failed
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'HR')")
+    @GetMapping("/report/exports/{jobId}/file")
+    public ResponseEntity<Resource> downloadReportExport(@PathVariable String jobId) {
+        ReportExportStatusDTO status = userReportExportService.getStatus(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Export not found"));
+        Path file = userReportExportService.getFile(jobId).orElse(null);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        String fileName = "users-report-" + jobId + (status.isGzip() ? ".csv.gz" : ".csv");
+        return ResponseEntity.ok()
+                .contentType(status.isGzip() ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(new FileSystemResource(file));
     }
 }
@@ -0,0 +1,11 @@
+package com.ibs.userservice.dtos.requestDtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,19 @@
+package com.ibs.userservice.dtos.requestDtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One change applied to many users. Targets either the listed ids or the users matching the filter;
+ * the change sets the role, the active flag, or both.
+ */
+@Data
+public class UserBulkUpdateDTO {
+
+    private List<Integer> ids;
+    private UserFilterDTO filter;
+
+    private Integer roleId;
+    private Boolean active;
+}
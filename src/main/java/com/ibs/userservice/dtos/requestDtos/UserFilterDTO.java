@@ -0,0 +1,21 @@
+package com.ibs.userservice.dtos.requestDtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects users by their current values. Criteria that are set are combined with AND.
+ */
+@Data
+public class UserFilterDTO {
+
+    private Integer roleId;
+    private Boolean active;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+
+    public boolean isEmpty() {
+        return roleId == null && active == null && createdFrom == null && createdTo == null;
+    }
+}
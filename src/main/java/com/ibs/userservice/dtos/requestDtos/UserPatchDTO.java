@@ -0,0 +1,32 @@
+package com.ibs.userservice.dtos.requestDtos;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+/**
+ * Fields of a JSON merge patch for a user. Constraints match {@link UserRequestDTO}, but every field is
+ * optional because only the fields present in the patch are applied.
+ */
+@Data
+public class UserPatchDTO {
+
+    @Pattern(regexp = ".*\\S.*", message = "Username is required")
+    private String userName;
+
+    @Pattern(regexp = ".*\\S.*", message = "Email is required")
+    @Email(message = "Email should be valid")
+    private String email;
+
+    @Pattern(
+            regexp = "^[6-9]\\d{9}$",
+            message = "Phone number must be 10 digits and start with 6, 7, 8, or 9"
+    )
+    private String userPhone;
+
+    @Size(min = 6, message = "Password must be at least 6 characters")
+    private String password;
+
+    private String fullName;
+    private Boolean active;
+    private Integer roleId;
+}
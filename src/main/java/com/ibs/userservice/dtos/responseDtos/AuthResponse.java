@@ -13,4 +13,5 @@ public class AuthResponse {
     private Integer userId;
     private String userName;
     private String userFullName;
+    private String refreshToken;
 }
@@ -0,0 +1,14 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserDeleteResponseDTO {
+
+    private int requested;
+    private int deleted;
+}
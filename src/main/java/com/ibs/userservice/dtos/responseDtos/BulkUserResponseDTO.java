@@ -0,0 +1,18 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserResponseDTO {
+
+    private int requested;
+    private int created;
+    private int rejected;
+    private List<BulkUserResultDTO> results;
+}
@@ -0,0 +1,21 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import com.ibs.userservice.enums.BulkRowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserResultDTO {
+
+    // Position of the row in the request, starting at 0
+    private int index;
+    private BulkRowStatus status;
+    private Integer userId;
+    private String userName;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,13 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserUpdateResponseDTO {
+
+    private int updated;
+}
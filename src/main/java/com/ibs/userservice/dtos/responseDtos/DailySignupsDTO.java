@@ -0,0 +1,16 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySignupsDTO {
+
+    private LocalDate date;
+    private long users;
+}
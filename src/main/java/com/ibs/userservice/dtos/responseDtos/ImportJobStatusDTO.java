@@ -0,0 +1,31 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import com.ibs.userservice.enums.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobStatusDTO {
+
+    private String jobId;
+    private String fileName;
+    private ImportJobStatus status;
+    private long rowsProcessed;
+    private long created;
+    private long rejected;
+    private double rowsPerSecond;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    // Only the first failures are kept, rejected holds the full count
+    private List<ImportRowErrorDTO> failures;
+}
@@ -0,0 +1,18 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDTO {
+
+    // Line in the uploaded file, the header is line 1
+    private long lineNumber;
+    private String userName;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,32 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import com.ibs.userservice.enums.ExportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportExportStatusDTO {
+
+    private String jobId;
+    private ExportJobStatus status;
+    private String role;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private boolean gzip;
+    private int partitions;
+    private int partitionsCompleted;
+    private long rowsWritten;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    // Set once the file is ready
+    private String downloadUrl;
+}
@@ -5,14 +5,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ReportResponseDto {
-    private List<Map<String, Object>> data;
+    private List<UserReportRow> data;
     private int page;
     private int size;
-    private long total;
+    // Null when the report was requested without a count
+    private Long total;
+    private boolean hasNext;
 }
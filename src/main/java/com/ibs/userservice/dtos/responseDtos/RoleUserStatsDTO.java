@@ -0,0 +1,16 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleUserStatsDTO {
+
+    private Integer roleId;
+    private String roleName;
+    private long users;
+    private long activeUsers;
+}
@@ -0,0 +1,23 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the user report, read directly by the report query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserReportRow {
+    private Integer userId;
+    private String fullName;
+    private String email;
+    private String phone;
+    private String role;
+    private boolean active;
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,6 @@ public class UserResponseDTO {
     private Integer userId;
     private String userName;
     private String userPhone;
-    private String password;
     private String email;
     private String fullName;
     private boolean active;
@@ -0,0 +1,20 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paged listing. Pass nextCursor as after to get the following slice; it is null on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserScrollResponseDTO {
+    private List<UserResponseDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
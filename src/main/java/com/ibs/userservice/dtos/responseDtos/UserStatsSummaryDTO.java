@@ -0,0 +1,26 @@
+package com.ibs.userservice.dtos.responseDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * User counts for the dashboard, over users who signed up between from and to (all users when both are null).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsSummaryDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    private long users;
+    private long activeUsers;
+    private long inactiveUsers;
+    private List<RoleUserStatsDTO> roles;
+    // Only days with sign-ups, oldest first
+    private List<DailySignupsDTO> signups;
+}
@@ -3,6 +3,9 @@ package com.ibs.userservice.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 import java.util.Set;
 
@@ -12,6 +15,8 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "roles")
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 public class Role {
 
     @Id
@@ -0,0 +1,41 @@
+package com.ibs.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * An ES256 key pair used to sign access tokens. A key is published from creation, signs from activates_at
+ * until the next key activates, and is kept until the tokens it signed have expired.
+ */
+@Entity
+@Table(name = "signing_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SigningKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "kid", nullable = false, unique = true, length = 64)
+    private String kid;
+
+    // X.509 SubjectPublicKeyInfo, base64
+    @Column(name = "public_key", nullable = false, length = 512)
+    private String publicKey;
+
+    // PKCS#8, base64
+    @Column(name = "private_key", nullable = false, length = 512)
+    private String privateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "activates_at", nullable = false)
+    private Instant activatesAt;
+}
@@ -0,0 +1,5 @@
+package com.ibs.userservice.enums;
+
+public enum BulkRowStatus {
+    CREATED, INVALID, CONFLICT
+}
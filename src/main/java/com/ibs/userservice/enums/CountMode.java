@@ -0,0 +1,9 @@
+package com.ibs.userservice.enums;
+
+/**
+ * How a paged listing works out its total: EXACT counts on every page, CACHED reuses a recent count of the
+ * same filter, NONE skips the count and only reports whether another page follows.
+ */
+public enum CountMode {
+    EXACT, CACHED, NONE
+}
@@ -0,0 +1,26 @@
+package com.ibs.userservice.enums;
+
+/**
+ * Output formats of the user export. JSON is a single array, NDJSON one object per line.
+ */
+public enum ExportFormat {
+    JSON("application/json", "json"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
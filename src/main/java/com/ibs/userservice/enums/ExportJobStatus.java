@@ -0,0 +1,5 @@
+package com.ibs.userservice.enums;
+
+public enum ExportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
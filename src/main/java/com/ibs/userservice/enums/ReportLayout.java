@@ -0,0 +1,9 @@
+package com.ibs.userservice.enums;
+
+/**
+ * JSON layout of the user report. ROWS sends one object per user; COLUMNAR sends the column names once and
+ * each user as an array of values in that order.
+ */
+public enum ReportLayout {
+    ROWS, COLUMNAR
+}
@@ -0,0 +1,38 @@
+package com.ibs.userservice.event;
+
+import java.util.Set;
+
+/**
+ * Published by UserService after users are created, updated or deleted so caches can drop what they hold
+ * for those users. An empty id set means the affected users are not known and everything should be dropped.
+ * DEACTIVATED is an update that made the users inactive, so their tokens should stop working as well.
+ *
+ * @param type    what happened to the users
+ * @param userIds ids of the affected users
+ */
+public record UserChangedEvent(ChangeType type, Set<Integer> userIds) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DEACTIVATED, DELETED
+    }
+
+    public static UserChangedEvent created(Integer userId) {
+        return new UserChangedEvent(ChangeType.CREATED, Set.of(userId));
+    }
+
+    public static UserChangedEvent updated(Integer userId) {
+        return new UserChangedEvent(ChangeType.UPDATED, Set.of(userId));
+    }
+
+    public static UserChangedEvent deactivated(Integer userId) {
+        return new UserChangedEvent(ChangeType.DEACTIVATED, Set.of(userId));
+    }
+
+    public static UserChangedEvent deleted(Integer userId) {
+        return new UserChangedEvent(ChangeType.DELETED, Set.of(userId));
+    }
+
+    public boolean affectsAllUsers() {
+        return userIds.isEmpty();
+    }
+}
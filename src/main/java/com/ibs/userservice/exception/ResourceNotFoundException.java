@@ -0,0 +1,11 @@
+package com.ibs.userservice.exception;
+
+/**
+ * Thrown when the resource a request names does not exist; answered with 404.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ibs.userservice.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request is refused up front because the service is saturated or the caller is over its limit.
+ * Carries the HTTP status to answer with and how long the client should wait before retrying.
+ */
+@Getter
+public class ThrottledException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public ThrottledException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
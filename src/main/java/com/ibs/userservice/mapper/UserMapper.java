@@ -14,7 +14,6 @@ public class UserMapper {
                 user.getUserId(),
                 user.getUserName(),
                 user.getUserPhone(),
-                user.getPasswordHash(),
                 user.getEmail(),
                 user.getFullName(),
                 user.isActive(),
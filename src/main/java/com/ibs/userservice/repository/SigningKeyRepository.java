@@ -0,0 +1,13 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.entity.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, Long> {
+
+    List<SigningKey> findAllByOrderByActivatesAtAsc();
+}
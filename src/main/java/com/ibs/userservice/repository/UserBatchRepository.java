@@ -0,0 +1,91 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts users through JDBC batches. Hibernate cannot batch inserts of IDENTITY entities because it needs
+ * each id right away; here the whole batch is sent at once (rewritten into multi-row INSERTs by the MySQL
+ * driver when rewriteBatchedStatements=true) and the generated ids are read back afterwards.
+ */
+@Repository
+public class UserBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO users (user_name, user_phone, email, password_hash, full_name, active, role_id, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+
+    public UserBatchRepository(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory,
+                               @Value("${user.bulk.batchSize}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts all users in one transaction and sets their generated ids.
+     *
+     * @param users new users, each with a role
+     */
+    @Transactional
+    public void insertAll(List<User> users) {
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<User> chunk = users.subList(from, Math.min(users.size(), from + batchSize));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new UserBatchSetter(chunk), keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != chunk.size()) {
+                throw new IllegalStateException("Expected " + chunk.size() + " generated ids but got " + keys.size());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setUserId(((Number) keys.get(i).values().iterator().next()).intValue());
+            }
+        }
+        // Hibernate did not see these inserts, so cached query results over users could now be missing rows
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+
+    private record UserBatchSetter(List<User> users) implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            User user = users.get(i);
+            LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : LocalDateTime.now();
+            ps.setString(1, user.getUserName());
+            ps.setString(2, user.getUserPhone());
+            ps.setString(3, user.getEmail());
+            ps.setString(4, user.getPasswordHash());
+            ps.setString(5, user.getFullName());
+            ps.setBoolean(6, user.isActive());
+            ps.setInt(7, user.getRole().getRoleId());
+            ps.setTimestamp(8, Timestamp.valueOf(createdAt));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return users.size();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Queries behind the user report and its export. The role is compared by id on users.role_id and only the date
+ * bounds that were given become predicates, so each query is a range scan of idx_users_role_created rather than
+ * a join to roles with "IS NULL OR" conditions the index cannot serve. The role name is already known from the
+ * registry and is selected as a constant.
+ */
+@Repository
+public class UserReportRepository {
+
+    /**
+     * Properties the report can be sorted by. Each is the second column of a (role_id, ...) index, so a sorted
+     * page is read in index order.
+     */
+    public static final Set<String> SORTABLE_FIELDS = Set.of("userId", "fullName", "email", "createdAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     *
+     * @param role      role the users have
+     * @param startDate earliest createdAt, or null for no lower bound
+     * @param endDate   latest createdAt, or null for no upper bound
+     * @param pageable  page, sorted by {@link #SORTABLE_FIELDS} only
+     * @return page of report rows, counted only when the page does not show the total itself
+     */
+    public Page<UserReportRow> findRows(Role role, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        List<UserReportRow> rows = rowQuery(role, startDate, endDate, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(role, startDate, endDate));
+    }
+
+    /**
+     * Like {@link #findRows} without a count, reading one row past the page to tell whether another follows.
+     */
+    public Slice<UserReportRow> findRowSlice(Role role, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        List<UserReportRow> rows = rowQuery(role, startDate, endDate, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    public long count(Role role, LocalDateTime startDate, LocalDateTime endDate) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+        query.select(cb.count(user)).where(filter(cb, user, role, startDate, endDate));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Lowest and highest userId matching the report filter, used to split an export into id ranges.
+     */
+    public IdRange findIdRange(Role role, LocalDateTime startDate, LocalDateTime endDate) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<IdRange> query = cb.createQuery(IdRange.class);
+        Root<User> user = query.from(User.class);
+        Path<Integer> userId = user.get("userId");
+        query.select(cb.construct(IdRange.class, cb.min(userId), cb.max(userId), cb.count(user)))
+                .where(filter(cb, user, role, startDate, endDate));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Users matching the report filter within one userId range, in userId order. The fetch size makes MySQL
+     * stream rows instead of buffering the whole result. Consume within a transaction and close the stream.
+     */
+    public Stream<UserResponseDTO> streamResponses(Role role, LocalDateTime startDate, LocalDateTime endDate, int fromId, int toId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserResponseDTO> query = cb.createQuery(UserResponseDTO.class);
+        Root<User> user = query.from(User.class);
+        Path<Integer> userId = user.get("userId");
+        List<Predicate> where = new ArrayList<>(List.of(filter(cb, user, role, startDate, endDate)));
+        where.add(cb.between(userId, fromId, toId));
+        query.select(cb.construct(UserResponseDTO.class,
+                        userId, user.get("userName"), user.get("userPhone"), user.get("email"), user.get("fullName"),
+                        user.get("active"), cb.literal(role.getRoleId()), cb.literal(role.getRoleName()),
+                        user.get("createdAt"), user.get("updatedAt")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(userId));
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<UserReportRow> rowQuery(Role role, LocalDateTime startDate, LocalDateTime endDate, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserReportRow> query = cb.createQuery(UserReportRow.class);
+        Root<User> user = query.from(User.class);
+        query.select(cb.construct(UserReportRow.class,
+                        user.get("userId"), user.get("fullName"), user.get("email"), user.get("userPhone"),
+                        cb.literal(role.getRoleName()), user.get("active"), user.get("createdAt")))
+                .where(filter(cb, user, role, startDate, endDate))
+                .orderBy(orders(cb, user, sort));
+        return entityManager.createQuery(query);
+    }
+
+    private static Predicate[] filter(CriteriaBuilder cb, Root<User> user, Role role, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Predicate> where = new ArrayList<>(3);
+        // Compared on the foreign key column, without joining roles
+        where.add(cb.equal(user.get("role").get("roleId"), role.getRoleId()));
+        if (startDate != null) {
+            where.add(cb.greaterThanOrEqualTo(user.get("createdAt"), startDate));
+        }
+        if (endDate != null) {
+            where.add(cb.lessThanOrEqualTo(user.get("createdAt"), endDate));
+        }
+        return where.toArray(Predicate[]::new);
+    }
+
+    private static List<Order> orders(CriteriaBuilder cb, Root<User> user, Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Report cannot be sorted by " + order.getProperty());
+            }
+            Path<?> path = user.get(order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        // userId breaks ties, so pages neither overlap nor skip rows when the sort column repeats. Every index
+        // ends with the primary key, so this does not add a sort.
+        if (sort.getOrderFor("userId") == null) {
+            orders.add(cb.asc(user.get("userId")));
+        }
+        return orders;
+    }
+
+    public record IdRange(Integer minId, Integer maxId, long count) {
+    }
+}
@@ -1,28 +1,119 @@
 package com.ibs.userservice.repository;
 
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
 import com.ibs.userservice.entity.Role;
 import com.ibs.userservice.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+    /**
+     * Reads straight into UserResponseDTO with the role joined in, so read endpoints neither hydrate managed
+     * users nor load the password hash.
+     */
+    String SELECT_USER_RESPONSE = """
+        SELECT new com.ibs.userservice.dtos.responseDtos.UserResponseDTO(
+            u.userId, u.userName, u.userPhone, u.email, u.fullName, u.active,
+            r.roleId, r.roleName, u.createdAt, u.updatedAt)
+        FROM User u JOIN u.role r
+    """;
+
     Optional<User> findByUserName(String userName);
-    Page<User> findByRole(Role role, Pageable pageable);
-    List<User> findByRole_RoleNameIgnoreCase(String roleName);
-
-    @Query("""
-        SELECT u FROM User u
-        WHERE UPPER(u.role.roleName) = :role
-        AND (:startDate IS NULL OR u.createdAt >= :startDate)
-        AND (:endDate IS NULL OR u.createdAt <= :endDate)
-    """)
-    Page<User> findByRoleAndDateRange(String role, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    @Query(SELECT_USER_RESPONSE + " WHERE u.userId = :userId")
+    Optional<UserResponseDTO> findResponseById(Integer userId);
+
+    /**
+     * All users in userId order for export. The fetch size makes MySQL stream rows instead of buffering the
+     * whole result, and rows are DTOs, so nothing accumulates in the persistence context. Consume within a
+     * transaction and close the stream.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_USER_RESPONSE + " ORDER BY u.userId")
+    Stream<UserResponseDTO> streamAllResponses();
+
+    @Query(value = SELECT_USER_RESPONSE, countQuery = "SELECT count(u) FROM User u")
+    Page<UserResponseDTO> findAllResponses(Pageable pageable);
+
+    @Query(SELECT_USER_RESPONSE)
+    Slice<UserResponseDTO> findResponseSlice(Pageable pageable);
+
+    @Query(SELECT_USER_RESPONSE + " WHERE u.userId IN :userIds")
+    List<UserResponseDTO> findResponsesByUserIdIn(Collection<Integer> userIds);
+
+    @Query(value = SELECT_USER_RESPONSE + " WHERE u.role = :role", countQuery = "SELECT count(u) FROM User u WHERE u.role = :role")
+    Page<UserResponseDTO> findResponsesByRole(Role role, Pageable pageable);
+
+    @Query(SELECT_USER_RESPONSE + " WHERE u.role = :role")
+    Slice<UserResponseDTO> findResponseSliceByRole(Role role, Pageable pageable);
+
+    long countByRole(Role role);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_USER_RESPONSE + " WHERE u.role = :role")
+    List<UserResponseDTO> findResponsesByRole(Role role);
+
+    /**
+     * Keyset page in userId order: a range scan from afterId on the primary key, reading one row past the
+     * page size to tell whether another slice follows.
+     */
+    @Query(SELECT_USER_RESPONSE + " WHERE u.userId > :afterId ORDER BY u.userId")
+    Slice<UserResponseDTO> findResponsesAfter(int afterId, Pageable pageable);
+
+    /**
+     * Keyset page within a role, a range scan of idx_users_role_user in order.
+     */
+    @Query(SELECT_USER_RESPONSE + " WHERE u.role = :role AND u.userId > :afterId ORDER BY u.userId")
+    Slice<UserResponseDTO> findResponsesByRoleAfter(Role role, int afterId, Pageable pageable);
+
+    /**
+     * Selects only the unique columns, used to find conflicts before a bulk insert.
+     */
+    List<UserIdentifiers> findByUserNameInOrEmailInOrUserPhoneIn(Collection<String> userNames, Collection<String> emails, Collection<String> userPhones);
+
+    /**
+     * Replaces the hash only if it is still the one given, so a password changed in the meantime is kept.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.userName = :userName AND u.passwordHash = :oldPasswordHash")
+    int updatePasswordHash(String userName, String oldPasswordHash, String passwordHash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.userId IN :userIds")
+    int deleteAllByUserIdIn(Collection<Integer> userIds);
+
+    /**
+     * Soft delete.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.active = false, u.updatedAt = CURRENT_TIMESTAMP WHERE u.userId IN :userIds AND u.active = true")
+    int deactivateAllByUserIdIn(Collection<Integer> userIds);
+
+    interface UserIdentifiers {
+        String getUserName();
+        String getEmail();
+        String getUserPhone();
+    }
 }
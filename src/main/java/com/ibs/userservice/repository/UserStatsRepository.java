@@ -0,0 +1,85 @@
+package com.ibs.userservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The user_daily_stats rollup: number of users and active users per role and sign-up day.
+ */
+@Repository
+public class UserStatsRepository {
+
+    private static final String SELECT_ALL = "SELECT role_id, signup_date, users, active_users FROM user_daily_stats";
+
+    private static final String ADD_SQL = "INSERT INTO user_daily_stats (role_id, signup_date, users, active_users) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE users = users + VALUES(users), active_users = active_users + VALUES(active_users)";
+
+    private static final String GROUP_USERS = "SELECT role_id, CAST(created_at AS DATE) AS signup_date, COUNT(*) AS users, "
+            + "SUM(CASE WHEN active THEN 1 ELSE 0 END) AS active_users FROM users ";
+
+    private static final RowMapper<DailyStats> ROW_MAPPER = (rs, rowNum) -> new DailyStats(
+            rs.getInt("role_id"), rs.getDate("signup_date").toLocalDate(), rs.getLong("users"), rs.getLong("active_users"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public UserStatsRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    public List<DailyStats> findAll() {
+        return jdbcTemplate.query(SELECT_ALL, ROW_MAPPER);
+    }
+
+    /**
+     * Counts the given users the way the rollup does, so the counts can be taken off before they are deleted.
+     *
+     * @param userIds users, ids that do not exist are skipped
+     * @return one row per role and sign-up day of these users
+     */
+    public List<DailyStats> sumByUserIds(Collection<Integer> userIds) {
+        return namedParameterJdbcTemplate.query(GROUP_USERS + "WHERE user_id IN (:userIds) GROUP BY role_id, CAST(created_at AS DATE)",
+                Map.of("userIds", userIds), ROW_MAPPER);
+    }
+
+    /**
+     * Adds each row's counts to the stored ones, creating rows that do not exist yet. Always runs in its own
+     * short transaction: it is called once the user change has committed, and a failure here must not roll back
+     * a caller's transaction or keep the rollup rows locked for longer than the upsert.
+     *
+     * @param deltas changes to apply, negative to take users off
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void add(List<DailyStats> deltas) {
+        jdbcTemplate.batchUpdate(ADD_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setInt(1, delta.roleId());
+            ps.setDate(2, Date.valueOf(delta.signupDate()));
+            ps.setLong(3, delta.users());
+            ps.setLong(4, delta.activeUsers());
+        });
+    }
+
+    /**
+     * Recomputes the whole rollup from users in one transaction.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM user_daily_stats");
+        jdbcTemplate.update("INSERT INTO user_daily_stats (role_id, signup_date, users, active_users) "
+                + GROUP_USERS + "GROUP BY role_id, CAST(created_at AS DATE)");
+    }
+
+    public record DailyStats(int roleId, LocalDate signupDate, long users, long activeUsers) {
+    }
+}
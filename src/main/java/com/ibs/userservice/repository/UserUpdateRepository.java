@@ -0,0 +1,134 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.dtos.requestDtos.UserFilterDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.UserStatsRepository.DailyStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Applies one change to many users with a single UPDATE statement, without loading the rows.
+ */
+@Repository
+public class UserUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Sets the given columns on the users selected by ids or, when ids is null, by the filter. Rows that
+     * already hold the new values are left alone, so the count is the number of users actually changed.
+     *
+     * @param ids    users to update, or null to use the filter
+     * @param filter criteria selecting the users when ids is null
+     * @param roleId new role, or null to keep it
+     * @param active new active flag, or null to keep it
+     * @return number of users changed
+     */
+    @Transactional
+    public int updateAll(Collection<Integer> ids, UserFilterDTO filter, Integer roleId, Boolean active) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        if (roleId != null) {
+            update.set(user.<Role>get("role"), entityManager.getReference(Role.class, roleId));
+        }
+        if (active != null) {
+            update.set(user.<Boolean>get("active"), active);
+        }
+        update.set(user.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.where(where(cb, user, ids, filter, roleId, active));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Counts the users {@link #updateAll} would change with the same arguments, per role and sign-up day, so
+     * the user stats can be moved along without recounting every user.
+     *
+     * @return one row per current role and sign-up day of the users that would change
+     */
+    public List<DailyStats> sumChanged(Collection<Integer> ids, UserFilterDTO filter, Integer roleId, Boolean active) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        Path<Integer> roleIdPath = user.get("role").get("roleId");
+        Expression<LocalDate> signupDate = ((JpaExpression<LocalDateTime>) user.<LocalDateTime>get("createdAt")).cast(LocalDate.class);
+        query.multiselect(roleIdPath, signupDate, cb.count(user),
+                        cb.sum(cb.<Long>selectCase().when(cb.isTrue(user.get("active")), 1L).otherwise(0L)))
+                .where(where(cb, user, ids, filter, roleId, active))
+                .groupBy(roleIdPath, signupDate);
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new DailyStats(row.get(0, Integer.class), row.get(1, LocalDate.class),
+                        row.get(2, Long.class), row.get(3, Long.class)))
+                .toList();
+    }
+
+    /**
+     * Ids of the users {@link #updateAll} would change with the same arguments, read before a bulk update that
+     * makes users inactive so their tokens can be revoked.
+     *
+     * @return ids of the users that would change
+     */
+    public List<Integer> findChangedIds(Collection<Integer> ids, UserFilterDTO filter, Integer roleId, Boolean active) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<User> user = query.from(User.class);
+        query.select(user.get("userId")).where(where(cb, user, ids, filter, roleId, active));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // The target users that do not already hold the new values
+    private Predicate[] where(CriteriaBuilder cb, Root<User> user, Collection<Integer> ids, UserFilterDTO filter,
+                              Integer roleId, Boolean active) {
+        Path<Role> rolePath = user.get("role");
+        Path<Boolean> activePath = user.get("active");
+
+        List<Predicate> changes = new ArrayList<>(2);
+        if (roleId != null) {
+            changes.add(cb.notEqual(rolePath, entityManager.getReference(Role.class, roleId)));
+        }
+        if (active != null) {
+            changes.add(cb.notEqual(activePath, active));
+        }
+
+        List<Predicate> where = new ArrayList<>();
+        if (ids != null) {
+            where.add(user.get("userId").in(ids));
+        } else {
+            if (filter.getRoleId() != null) {
+                where.add(cb.equal(rolePath, entityManager.getReference(Role.class, filter.getRoleId())));
+            }
+            if (filter.getActive() != null) {
+                where.add(cb.equal(activePath, filter.getActive()));
+            }
+            if (filter.getCreatedFrom() != null) {
+                where.add(cb.greaterThanOrEqualTo(user.get("createdAt"), filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedTo() != null) {
+                where.add(cb.lessThanOrEqualTo(user.get("createdAt"), filter.getCreatedTo()));
+            }
+        }
+        where.add(cb.or(changes.toArray(Predicate[]::new)));
+        return where.toArray(Predicate[]::new);
+    }
+}
@@ -8,7 +8,20 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 
-public record AppUserDetails(User user) implements UserDetails {
+public record AppUserDetails(User user, boolean accountNonLocked) implements UserDetails {
+
+    public AppUserDetails(User user) {
+        this(user, true);
+    }
+
+    /**
+     *
+     * @param nonLocked whether the account may log in right now
+     * @return these details with the given lock status, or this instance if it already matches
+     */
+    public AppUserDetails withAccountNonLocked(boolean nonLocked) {
+        return nonLocked == accountNonLocked ? this : new AppUserDetails(user, nonLocked);
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -32,11 +45,16 @@ public record AppUserDetails(User user) implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return accountNonLocked;
     }
 
     @Override
     public boolean isCredentialsNonExpired() {
         return true;
     }
+
+    @Override
+    public boolean isEnabled() {
+        return user.isActive();
+    }
 }
@@ -1,21 +1,61 @@
 package com.ibs.userservice.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ibs.userservice.entity.User;
+import com.ibs.userservice.event.UserChangedEvent;
 import com.ibs.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Slf4j
-public class AppUserDetailsService implements UserDetailsService {
+public class AppUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final LoginAttemptService loginAttemptService;
+
+    // Username -> details, so repeated logins skip the users/roles query until the entry expires or the user changes
+    private final Cache<String, AppUserDetails> userDetailsCache;
+
+    // User id -> username of its cached entry, so a change to a user drops it without scanning the cache
+    private final Map<Integer, String> usernamesById = new ConcurrentHashMap<>();
+
+    // Moved on by every change before its entries are dropped, so a load that overlapped a change can tell
+    private final AtomicLong changeCount = new AtomicLong();
 
-    public AppUserDetailsService(UserRepository userRepository) {
+    public AppUserDetailsService(UserRepository userRepository,
+                                 LoginAttemptService loginAttemptService,
+                                 @Value("${security.userDetailsCache.maxSize}") long maxSize,
+                                 @Value("${security.userDetailsCache.ttlSeconds}") long ttlSeconds,
+                                 MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.loginAttemptService = loginAttemptService;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .<String, AppUserDetails>evictionListener((username, details, cause) -> {
+                    if (details != null) {
+                        usernamesById.remove(details.user().getUserId(), username);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "auth.userdetails");
     }
     /**
      *
@@ -25,9 +65,71 @@ public class AppUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Entering into loadUserByUsername {} ", username);
-        User user = userRepository.findByUserName(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        log.info("Exit from loadUserByUsername {} ", user);
-        return new AppUserDetails(user);
+        AppUserDetails userDetails = userDetailsCache.getIfPresent(username);
+        if (userDetails == null) {
+            log.debug("Loading user details for {}", username);
+            long changesBefore = changeCount.get();
+            User user = userRepository.findByUserName(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            userDetails = new AppUserDetails(user);
+            userDetailsCache.put(username, userDetails);
+            String previous = usernamesById.put(user.getUserId(), username);
+            if (previous != null && !previous.equals(username)) {
+                // Loaded under a new username before the rename was announced
+                userDetailsCache.invalidate(previous);
+            }
+            // A change that committed while the row was read may have found nothing to drop, since the entry
+            // was not indexed yet, so the entry is dropped again. Changes announced after this check find it.
+            if (changeCount.get() != changesBefore) {
+                userDetailsCache.asMap().remove(username, userDetails);
+            }
+        }
+        // The lockout changes independently of the user row, so it is applied on every load rather than cached
+        return userDetails.withAccountNonLocked(!loginAttemptService.isLocked(username));
+    }
+
+    /**
+     * Stores a rehashed password, called after a login whose hash used an outdated cost. The rehash runs in the
+     * background, so it only replaces the hash that was verified; if the password was changed since, it is kept.
+     *
+     * @param user        the authenticated user, carrying the verified hash
+     * @param newPassword the new encoded password
+     * @return UserDetails carrying the stored hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        int updated = userRepository.updatePasswordHash(user.getUsername(), user.getPassword(), newPassword);
+        // Cached details are shared with concurrent logins, so they are dropped rather than changed
+        userDetailsCache.invalidate(user.getUsername());
+        if (updated == 0) {
+            log.info("Skipped password hash upgrade for {}, the password changed meanwhile", user.getUsername());
+            return user;
+        }
+        log.info("Upgraded password hash for {}", user.getUsername());
+        return loadUserByUsername(user.getUsername());
+    }
+
+    /**
+     * Drops cached details of users that were changed or removed. Entries are found through the id index
+     * because an update may also have changed the username the entry is keyed by.
+     *
+     * @param event the user change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.ChangeType.CREATED) {
+            return;
+        }
+        changeCount.incrementAndGet();
+        if (event.affectsAllUsers()) {
+            userDetailsCache.invalidateAll();
+            usernamesById.clear();
+            return;
+        }
+        for (Integer userId : event.userIds()) {
+            String username = usernamesById.remove(userId);
+            if (username != null) {
+                userDetailsCache.invalidate(username);
+            }
+        }
     }
 }
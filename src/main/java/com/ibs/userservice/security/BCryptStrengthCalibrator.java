@@ -0,0 +1,97 @@
+package com.ibs.userservice.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decides the BCrypt work factor once at startup. With {@code security.password.bcrypt.strength=auto} a hash is
+ * timed on this host and the strength whose cost is closest to {@code security.password.bcrypt.targetMs} is chosen;
+ * a number pins the strength instead. The outcome is published on /actuator/info and as a gauge. Hosts calibrate
+ * independently, so prod pins a number to keep every instance hashing at the same cost.
+ */
+@Component
+@Slf4j
+public class BCryptStrengthCalibrator implements InfoContributor {
+
+    static final int MIN_AUTO_STRENGTH = 10;
+    static final int MAX_AUTO_STRENGTH = 16;
+    private static final int SAMPLES = 3;
+
+    @Getter
+    private final int strength;
+    private final boolean auto;
+    private final long targetMs;
+    private final double estimatedMs;
+
+    public BCryptStrengthCalibrator(@Value("${security.password.bcrypt.strength}") String configuredStrength,
+                                    @Value("${security.password.bcrypt.targetMs}") long targetMs,
+                                    MeterRegistry meterRegistry) {
+        this.targetMs = targetMs;
+        this.auto = "auto".equalsIgnoreCase(configuredStrength.trim());
+        if (auto) {
+            double baseMs = measure(MIN_AUTO_STRENGTH);
+            this.strength = strengthFor(baseMs, targetMs);
+            this.estimatedMs = baseMs * (1L << (strength - MIN_AUTO_STRENGTH));
+            log.info("Calibrated BCrypt strength {} (~{} ms per hash, target {} ms)", strength, Math.round(estimatedMs), targetMs);
+        } else {
+            this.strength = Integer.parseInt(configuredStrength.trim());
+            if (strength < 4 || strength > 31) {
+                throw new IllegalArgumentException("BCrypt strength must be between 4 and 31, was " + strength);
+            }
+            this.estimatedMs = -1;
+            log.info("Using configured BCrypt strength {}", strength);
+        }
+        Gauge.builder("auth.password.bcrypt.strength", this, BCryptStrengthCalibrator::getStrength)
+                .description("BCrypt work factor used for new password hashes").register(meterRegistry);
+    }
+
+    /**
+     * Each extra round doubles the cost, so the distance to the target in powers of two gives the strength.
+     *
+     * @param baseMs   measured time of one hash at {@link #MIN_AUTO_STRENGTH}
+     * @param targetMs desired time of one hash
+     * @return strength closest to the target, clamped to the supported auto range
+     */
+    static int strengthFor(double baseMs, long targetMs) {
+        if (baseMs <= 0 || targetMs <= 0) {
+            return MIN_AUTO_STRENGTH;
+        }
+        long extraRounds = Math.round(Math.log(targetMs / baseMs) / Math.log(2));
+        return (int) Math.max(MIN_AUTO_STRENGTH, Math.min(MAX_AUTO_STRENGTH, MIN_AUTO_STRENGTH + extraRounds));
+    }
+
+    private static double measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration-warmup");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-sample");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("algorithm", "bcrypt");
+        details.put("mode", auto ? "auto" : "fixed");
+        details.put("strength", strength);
+        if (auto) {
+            details.put("targetMs", targetMs);
+            details.put("estimatedMs", Math.round(estimatedMs));
+        }
+        builder.withDetail("passwordEncoder", details);
+    }
+}
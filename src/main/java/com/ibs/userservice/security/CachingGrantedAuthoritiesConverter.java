@@ -0,0 +1,46 @@
+package com.ibs.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the authorities converted from a {@link Jwt} for as long as that Jwt instance is alive. Combined with
+ * {@link CachingJwtDecoder}, which hands out the same instance on every hit, the authority list is built once
+ * per token and dropped together with the decode cache entry.
+ */
+public class CachingGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private final Converter<Jwt, Collection<GrantedAuthority>> delegate;
+
+    // Weak keys compare by identity, so a freshly decoded Jwt with equal claims is never mixed up with a cached one
+    private final Cache<Jwt, Collection<GrantedAuthority>> cache;
+
+    public CachingGrantedAuthoritiesConverter(Converter<Jwt, Collection<GrantedAuthority>> delegate, long maxSize,
+                                              MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.jwt.authorities");
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        return cache.get(jwt, this::convertOnce);
+    }
+
+    private Collection<GrantedAuthority> convertOnce(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = delegate.convert(jwt);
+        return authorities == null ? List.of() : List.copyOf(authorities);
+    }
+}
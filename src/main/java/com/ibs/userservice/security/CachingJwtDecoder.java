@@ -0,0 +1,100 @@
+package com.ibs.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers tokens that were already verified, keyed by their SHA-256, so a client sending the same token over
+ * and over pays for signature verification and claim parsing only once. An entry never outlives the token's
+ * exp. Checks whose answer can change while the token is still valid (revocation) are re-run on every hit.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtDecoder delegate;
+    private final OAuth2TokenValidator<Jwt> hitValidator;
+    private final Cache<ByteBuffer, Jwt> cache;
+
+    /**
+     *
+     * @param delegate      decoder that fully verifies tokens on a miss
+     * @param hitValidator  validator re-run on every cache hit
+     * @param maxSize       maximum number of cached tokens
+     * @param meterRegistry registry for the auth.jwt.decode cache metrics
+     */
+    public CachingJwtDecoder(JwtDecoder delegate, OAuth2TokenValidator<Jwt> hitValidator, long maxSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.hitValidator = hitValidator;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.jwt.decode");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        ByteBuffer key = digest(token);
+        Jwt cached = cache.getIfPresent(key);
+        if (cached != null) {
+            OAuth2TokenValidatorResult result = hitValidator.validate(cached);
+            if (result.hasErrors()) {
+                cache.invalidate(key);
+                throw new JwtValidationException(result.getErrors().iterator().next().getDescription(), result.getErrors());
+            }
+            return cached;
+        }
+        Jwt jwt = delegate.decode(token);
+        // Without an exp there is no safe upper bound for the entry, so such tokens are always verified
+        if (jwt.getExpiresAt() != null) {
+            cache.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, Jwt> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+            return Math.max(0L, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
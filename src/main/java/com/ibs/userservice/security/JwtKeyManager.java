@@ -0,0 +1,241 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.entity.SigningKey;
+import com.ibs.userservice.repository.SigningKeyRepository;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the ES256 keys that sign access tokens. Keys live in the signing_keys table so every instance signs
+ * with and publishes the same set. A new key is created publish-ahead before it starts signing, giving
+ * services that cache our JWKS time to pick it up; the previous key stays published until the last token it
+ * signed has expired. Private keys are stored encrypted by {@link SigningKeyCipher} and only decrypted into the
+ * immutable in-memory snapshot that lookups are served from.
+ */
+@Component
+@Slf4j
+public class JwtKeyManager {
+
+    private static final long UNKNOWN_KID_RELOAD_INTERVAL_MS = 10_000L;
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final SigningKeyCipher signingKeyCipher;
+    private final long rotationIntervalMs;
+    private final long publishAheadMs;
+    private final long accessTokenTtlMs;
+
+    private volatile KeyRing keyRing = new KeyRing(List.of(), null);
+    private volatile long lastReloadMs;
+
+    public JwtKeyManager(SigningKeyRepository signingKeyRepository,
+                         SigningKeyCipher signingKeyCipher,
+                         @Value("${security.jwt.keys.rotationIntervalMs}") long rotationIntervalMs,
+                         @Value("${security.jwt.keys.publishAheadMs}") long publishAheadMs,
+                         @Value("${security.jwt.expirationMs}") long accessTokenTtlMs) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.signingKeyCipher = signingKeyCipher;
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.publishAheadMs = publishAheadMs;
+        this.accessTokenTtlMs = accessTokenTtlMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        rotateIfDue();
+    }
+
+    /**
+     * Creates the next key when the current one is due for rotation, drops keys that can no longer have
+     * valid tokens, and reloads the snapshot so keys created by other instances are picked up.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.keys.checkIntervalMs}", initialDelayString = "${security.jwt.keys.checkIntervalMs}")
+    public synchronized void rotateIfDue() {
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>(signingKeyRepository.findAllByOrderByActivatesAtAsc());
+        encryptPlaintextKeys(keys);
+
+        if (keys.isEmpty()) {
+            keys.add(signingKeyRepository.save(generate(now, now)));
+            log.info("Created first signing key {}", keys.get(0).getKid());
+        } else if (!keys.get(keys.size() - 1).getActivatesAt().plusMillis(rotationIntervalMs).isAfter(now.plusMillis(publishAheadMs))) {
+            SigningKey next = signingKeyRepository.save(generate(now, now.plusMillis(publishAheadMs)));
+            keys.add(next);
+            log.info("Created signing key {}, signing from {}", next.getKid(), next.getActivatesAt());
+        }
+
+        // A key is retired when its successor activates; once its last token has expired it can go
+        List<SigningKey> expired = new ArrayList<>();
+        while (keys.size() > 1 && keys.get(1).getActivatesAt().plusMillis(accessTokenTtlMs).isBefore(now)) {
+            expired.add(keys.remove(0));
+        }
+        if (!expired.isEmpty()) {
+            signingKeyRepository.deleteAll(expired);
+            log.info("Removed {} retired signing keys", expired.size());
+        }
+
+        keyRing = new KeyRing(keys, signingKeyCipher);
+        lastReloadMs = System.currentTimeMillis();
+    }
+
+    /**
+     *
+     * @return the key to sign new tokens with
+     */
+    public ActiveKey activeKey() {
+        return keyRing.active(Instant.now());
+    }
+
+    /**
+     *
+     * @param kid key id from a token header
+     * @return the matching public key, or null if it is not published
+     */
+    public PublicKey publicKey(String kid) {
+        PublicKey publicKey = keyRing.publicKeys.get(kid);
+        if (publicKey == null && reloadForUnknownKid()) {
+            publicKey = keyRing.publicKeys.get(kid);
+        }
+        return publicKey;
+    }
+
+    /**
+     *
+     * @return JWKS document with the public keys, built once per reload
+     */
+    public String jwksJson() {
+        return keyRing.jwksJson;
+    }
+
+    /**
+     *
+     * @return key source for the resource-server decoder, backed by the in-memory snapshot
+     */
+    public JWKSource<SecurityContext> jwkSource() {
+        return (selector, context) -> {
+            List<JWK> matches = selector.select(keyRing.jwkSet);
+            if (matches.isEmpty() && reloadForUnknownKid()) {
+                matches = selector.select(keyRing.jwkSet);
+            }
+            return matches;
+        };
+    }
+
+    // Covers a key another instance created moments ago, while keeping unknown kids from driving DB load
+    private boolean reloadForUnknownKid() {
+        if (System.currentTimeMillis() - lastReloadMs < UNKNOWN_KID_RELOAD_INTERVAL_MS) {
+            return false;
+        }
+        rotateIfDue();
+        return true;
+    }
+
+    // Keys stored in plain text before they were encrypted are rewritten encrypted the first time they are read
+    private void encryptPlaintextKeys(List<SigningKey> keys) {
+        for (SigningKey key : keys) {
+            if (!signingKeyCipher.isEncrypted(key.getPrivateKey())) {
+                key.setPrivateKey(signingKeyCipher.encrypt(Base64.getDecoder().decode(key.getPrivateKey()), key.getKid()));
+                signingKeyRepository.save(key);
+                log.info("Encrypted stored signing key {}", key.getKid());
+            }
+        }
+    }
+
+    private SigningKey generate(Instant now, Instant activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            String kid = toJwk((ECPublicKey) keyPair.getPublic(), null).computeThumbprint().toString();
+            return new SigningKey(null, kid, Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                    signingKeyCipher.encrypt(keyPair.getPrivate().getEncoded(), kid), now, activatesAt);
+        } catch (GeneralSecurityException | JOSEException e) {
+            throw new IllegalStateException("Could not generate signing key", e);
+        }
+    }
+
+    private static ECKey toJwk(ECPublicKey publicKey, String kid) {
+        return new ECKey.Builder(Curve.P_256, publicKey)
+                .keyID(kid)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.ES256)
+                .build();
+    }
+
+    public record ActiveKey(String kid, PrivateKey privateKey) {
+    }
+
+    private static final class KeyRing {
+
+        private final List<SigningKey> keys;
+        private final List<ActiveKey> activeKeys;
+        private final Map<String, PublicKey> publicKeys;
+        private final JWKSet jwkSet;
+        private final String jwksJson;
+
+        private KeyRing(List<SigningKey> keys, SigningKeyCipher cipher) {
+            this.keys = List.copyOf(keys);
+            List<ActiveKey> active = new ArrayList<>(keys.size());
+            Map<String, PublicKey> byKid = new HashMap<>();
+            List<JWK> jwks = new ArrayList<>(keys.size());
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance("EC");
+                Base64.Decoder decoder = Base64.getDecoder();
+                for (SigningKey key : keys) {
+                    PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decoder.decode(key.getPublicKey())));
+                    PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(cipher.decrypt(key.getPrivateKey(), key.getKid())));
+                    active.add(new ActiveKey(key.getKid(), privateKey));
+                    byKid.put(key.getKid(), publicKey);
+                    jwks.add(toJwk((ECPublicKey) publicKey, key.getKid()));
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not load signing keys", e);
+            }
+            this.activeKeys = List.copyOf(active);
+            this.publicKeys = Map.copyOf(byKid);
+            this.jwkSet = new JWKSet(jwks);
+            this.jwksJson = jwkSet.toString();
+        }
+
+        private ActiveKey active(Instant now) {
+            if (keys.isEmpty()) {
+                throw new IllegalStateException("No signing key loaded");
+            }
+            // Newest key that has already activated; keys are ordered by activation
+            for (int i = keys.size() - 1; i > 0; i--) {
+                if (!keys.get(i).getActivatesAt().isAfter(now)) {
+                    return activeKeys.get(i);
+                }
+            }
+            return activeKeys.get(0);
+        }
+    }
+}
@@ -1,60 +1,96 @@
 package com.ibs.userservice.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.InvalidKeyException;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.GrantedAuthority;
 
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${security.jwt.secret}")
-    private String secret;
+    public static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
 
-    @Value("${security.jwt.expirationMs}")
-    private long expirationMs;
+    private final long expirationMs;
+    private final JwtKeyManager keyManager;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Built once and safe to share across request threads; the verification key is picked per token by kid
+    private final JwtParser parser;
+
+    public JwtUtil(JwtKeyManager keyManager,
+                   @Value("${security.jwt.expirationMs}") long expirationMs) {
+        this.expirationMs = expirationMs;
+        this.keyManager = keyManager;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                Key key = header.getKeyId() == null ? null : keyManager.publicKey(header.getKeyId());
+                if (key == null) {
+                    throw new UnsupportedJwtException("Unknown signing key");
+                }
+                return key;
+            }
+        }).build();
     }
 
     public String generateToken(UserDetails userDetails) {
-        Date now = new Date();
-        Date expiry = new Date(now.getTime() + expirationMs);
+        long now = System.currentTimeMillis();
 
-        // Make a defensive copy of authorities first
-        List<String> roles = new ArrayList<>();
-        for (GrantedAuthority authority : new ArrayList<>(userDetails.getAuthorities())) {
+        Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
+        List<String> roles = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
             roles.add(authority.getAuthority());
         }
 
-        return Jwts.builder()
+        JwtKeyManager.ActiveKey signingKey = keyManager.activeKey();
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
-                .claim("roles", roles)
-                .setIssuedAt(now)
-                .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claim(ROLES_CLAIM, roles);
+        if (userDetails instanceof AppUserDetails appUserDetails && appUserDetails.user().getUserId() != null) {
+            // Lets a revocation of the whole user be checked without a username lookup
+            builder.claim(USER_ID_CLAIM, appUserDetails.user().getUserId());
+        }
+        return builder
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMs))
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the signature and expiry of the token exactly once.
+     *
+     * @param token compact JWT
+     * @return the verified claims, or empty if the token is malformed, expired or not signed by us
+     */
+    public Optional<Claims> parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
+    public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
+    /**
+     *
+     * @param token compact JWT
+     * @return subject of the token
+     * @throws JwtException if the token is not valid
+     */
     public String extractUsername(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 }
@@ -0,0 +1,91 @@
+package com.ibs.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Counts consecutive failed logins per username and locks the account for a while once the limit is hit.
+ * Updates go through the cache's per-key compute, so there is no lock shared between usernames. An entry
+ * expires once the lockout duration has passed since it was last written, which ends a lockout, forgets old
+ * failures and bounds memory.
+ */
+@Component
+@Slf4j
+public class LoginAttemptService {
+
+    private final int maxFailures;
+    private final Cache<String, Attempts> attempts;
+    private final Counter lockouts;
+
+    public LoginAttemptService(@Value("${security.login.lockout.maxFailures}") int maxFailures,
+                               @Value("${security.login.lockout.durationSeconds}") long durationSeconds,
+                               @Value("${security.login.rateLimit.maxKeys}") long maxKeys,
+                               MeterRegistry meterRegistry) {
+        this(maxFailures, durationSeconds, maxKeys, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginAttemptService(int maxFailures, long durationSeconds, long maxKeys, MeterRegistry meterRegistry, Ticker ticker) {
+        this.maxFailures = maxFailures;
+        this.attempts = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofSeconds(durationSeconds))
+                .build();
+        this.lockouts = meterRegistry.counter("auth.login.lockouts");
+    }
+
+    /**
+     *
+     * @param username username that failed to log in
+     */
+    public void loginFailed(String username) {
+        AtomicBoolean lockedNow = new AtomicBoolean();
+        attempts.asMap().compute(key(username), (k, current) -> {
+            if (current != null && current.locked()) {
+                return current;
+            }
+            int failures = (current == null ? 0 : current.failures()) + 1;
+            lockedNow.set(failures >= maxFailures);
+            return new Attempts(failures, failures >= maxFailures);
+        });
+        if (lockedNow.get()) {
+            lockouts.increment();
+            log.warn("Locked {} after {} failed logins", username, maxFailures);
+        }
+    }
+
+    /**
+     *
+     * @param username username that logged in successfully
+     */
+    public void loginSucceeded(String username) {
+        attempts.invalidate(key(username));
+    }
+
+    /**
+     *
+     * @param username username to check
+     * @return true while the account is in a lockout period
+     */
+    public boolean isLocked(String username) {
+        Attempts current = attempts.getIfPresent(key(username));
+        return current != null && current.locked();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private record Attempts(int failures, boolean locked) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.ibs.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibs.userservice.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for the login endpoint, one per client IP and one per username. Each bucket is a single
+ * AtomicLong holding its theoretical arrival time (GCRA), updated by CAS, so concurrent logins never share a
+ * lock. Buckets that have been idle long enough to be full again carry no state and are expired from the
+ * bounded caches.
+ */
+@Component
+@Slf4j
+public class LoginRateLimiter {
+
+    private final Limit ipLimit;
+    private final Limit usernameLimit;
+    private final LongSupplier nanoClock;
+    private final Counter ipRejected;
+    private final Counter usernameRejected;
+
+    public LoginRateLimiter(@Value("${security.login.rateLimit.ipCapacity}") int ipCapacity,
+                            @Value("${security.login.rateLimit.ipPerMinute}") int ipPerMinute,
+                            @Value("${security.login.rateLimit.usernameCapacity}") int usernameCapacity,
+                            @Value("${security.login.rateLimit.usernamePerMinute}") int usernamePerMinute,
+                            @Value("${security.login.rateLimit.maxKeys}") long maxKeys,
+                            MeterRegistry meterRegistry) {
+        this(ipCapacity, ipPerMinute, usernameCapacity, usernamePerMinute, maxKeys, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(int ipCapacity, int ipPerMinute, int usernameCapacity, int usernamePerMinute, long maxKeys,
+                     MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.ipLimit = new Limit(ipCapacity, ipPerMinute, maxKeys);
+        this.usernameLimit = new Limit(usernameCapacity, usernamePerMinute, maxKeys);
+        this.nanoClock = nanoClock;
+        this.ipRejected = meterRegistry.counter("auth.login.throttled", "key", "ip");
+        this.usernameRejected = meterRegistry.counter("auth.login.throttled", "key", "username");
+    }
+
+    /**
+     * Takes one token from the IP bucket and one from the username bucket.
+     *
+     * @param username username from the login request
+     * @param clientIp remote address of the caller
+     * @throws ThrottledException with 429 if either bucket is empty
+     */
+    public void acquire(String username, String clientIp) {
+        long now = nanoClock.getAsLong();
+        if (clientIp != null) {
+            long waitNanos = ipLimit.tryAcquire(clientIp, now);
+            if (waitNanos > 0) {
+                ipRejected.increment();
+                log.warn("Login rate limit exceeded for ip {}", clientIp);
+                throw tooManyRequests(waitNanos);
+            }
+        }
+        if (username != null) {
+            long waitNanos = usernameLimit.tryAcquire(username.toLowerCase(Locale.ROOT), now);
+            if (waitNanos > 0) {
+                usernameRejected.increment();
+                log.warn("Login rate limit exceeded for username {}", username);
+                throw tooManyRequests(waitNanos);
+            }
+        }
+    }
+
+    private static ThrottledException tooManyRequests(long waitNanos) {
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new ThrottledException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later", retryAfterSeconds);
+    }
+
+    private static final class Limit {
+
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        private final Cache<String, AtomicLong> buckets;
+
+        private Limit(int capacity, int perMinute, long maxKeys) {
+            if (capacity < 1 || perMinute < 1) {
+                throw new IllegalArgumentException("Login rate limit capacity and rate must be positive");
+            }
+            this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            this.burstNanos = emissionIntervalNanos * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstNanos))
+                    .build();
+        }
+
+        /**
+         *
+         * @return 0 if a token was taken, otherwise how long until one is available
+         */
+        private long tryAcquire(String key, long now) {
+            AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long tat = bucket.get();
+                long newTat = Math.max(tat, now) + emissionIntervalNanos;
+                long overflow = newTat - now - burstNanos;
+                if (overflow > 0) {
+                    return overflow;
+                }
+                if (bucket.compareAndSet(tat, newTat)) {
+                    return 0L;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CPU-sized pool that runs every BCrypt encode/match so hashing can never occupy more than a fixed number of
+ * cores, no matter how many Tomcat threads are busy with logins. When the bounded queue is full the caller is
+ * rejected straight away with a 503 instead of waiting behind the backlog.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private static final ThreadLocal<Boolean> HASHING_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(@Value("${security.password.hashing.threads}") int threads,
+                                   @Value("${security.password.hashing.queueCapacity}") int queueCapacity,
+                                   @Value("${security.password.hashing.retryAfterSeconds}") long retryAfterSeconds,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.poolSize = poolSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode")
+                .description("Time spent computing a password hash").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches")
+                .description("Time spent verifying a password against its hash").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("auth.password.hash.queue.wait")
+                .description("Time a hashing task waited for a free hashing thread").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+                .description("Hashing requests refused because the queue was full").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a thread").register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy").register(meterRegistry);
+
+        log.info("Password hashing executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public String encode(Supplier<String> task) {
+        return execute(encodeTimer, task);
+    }
+
+    public boolean matches(Supplier<Boolean> task) {
+        return execute(matchesTimer, task);
+    }
+
+    /**
+     * Hashes many values in parallel for bulk operations. The items are split into at most half as many slices
+     * as there are hashing threads, each hashed sequentially on one thread, so a large batch takes only a few
+     * queue slots and leaves capacity for concurrent logins.
+     *
+     * @param items  values to hash
+     * @param hasher hashing function, run on the hashing threads; a {@link BoundedPasswordEncoder} runs inline there
+     * @return one hash per item, in item order
+     * @throws ThrottledException with 503 if the queue has no room for the slices
+     */
+    public <T> List<String> encodeAll(List<T> items, Function<T, String> hasher) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        if (isHashingThread()) {
+            return items.stream().map(hasher).toList();
+        }
+        int slices = Math.min(items.size(), Math.max(1, (poolSize + 1) / 2));
+        int sliceSize = (items.size() + slices - 1) / slices;
+        List<Future<List<String>>> futures = new ArrayList<>(slices);
+        try {
+            for (int from = 0; from < items.size(); from += sliceSize) {
+                List<T> slice = items.subList(from, Math.min(items.size(), from + sliceSize));
+                futures.add(submit(() -> slice.stream().map(hasher).toList()));
+            }
+            List<String> hashes = new ArrayList<>(items.size());
+            for (Future<List<String>> future : futures) {
+                hashes.addAll(await(future));
+            }
+            return hashes;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Queues fire-and-forget work, such as rehashing a password after login. Work that does not fit in the
+     * queue is dropped rather than delaying logins.
+     *
+     * @param task work to run on a hashing thread
+     * @return false if the queue was full and the task was dropped
+     */
+    public boolean submitBackground(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Background hashing task failed, {}", e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     *
+     * @return true when called from one of the hashing threads
+     */
+    public boolean isHashingThread() {
+        return HASHING_THREAD.get();
+    }
+
+    private <T> T execute(Timer timer, Supplier<T> task) {
+        if (isHashingThread()) {
+            // Already on a hashing thread, queueing again could deadlock the pool
+            return timer.record(task);
+        }
+        return await(submit(() -> timer.record(task)));
+    }
+
+    private <T> Future<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full, rejecting request");
+            throw new ThrottledException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many concurrent authentication requests, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                HASHING_THREAD.set(Boolean.TRUE);
+                runnable.run();
+            }, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
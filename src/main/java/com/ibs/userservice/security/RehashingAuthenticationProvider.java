@@ -0,0 +1,44 @@
+package com.ibs.userservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Authentication provider that upgrades outdated password hashes after a successful login without making the
+ * caller wait. {@link DaoAuthenticationProvider} would compute the new hash on the request thread, so its own
+ * upgrade hook is left unset and the rehash is handed to the {@link PasswordHashingExecutor} instead.
+ */
+@Slf4j
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService passwordService;
+    private final PasswordHashingExecutor hashingExecutor;
+
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService,
+                                           PasswordEncoder passwordEncoder,
+                                           UserDetailsPasswordService passwordService,
+                                           PasswordHashingExecutor hashingExecutor) {
+        super(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        this.passwordEncoder = passwordEncoder;
+        this.passwordService = passwordService;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        if (authentication.getCredentials() != null && passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String presentedPassword = authentication.getCredentials().toString();
+            boolean scheduled = hashingExecutor.submitBackground(() ->
+                    passwordService.updatePassword(user, passwordEncoder.encode(presentedPassword)));
+            log.debug("Password rehash for {} {}", user.getUsername(), scheduled ? "scheduled" : "skipped, executor busy");
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
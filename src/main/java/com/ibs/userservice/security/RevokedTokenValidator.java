@@ -0,0 +1,42 @@
+package com.ibs.userservice.security;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Rejects JWTs that were revoked by id or whose user was revoked after they were issued.
+ */
+@Component
+public class RevokedTokenValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Token has been revoked", null);
+
+    private final TokenRevocationService revocationService;
+
+    public RevokedTokenValidator(TokenRevocationService revocationService) {
+        this.revocationService = revocationService;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        String tokenId = jwt.getId();
+        if (tokenId != null && revocationService.isTokenRevoked(tokenId)) {
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        }
+        // Read the decoded claim map directly, it already holds Long/Instant values
+        Object userId = jwt.getClaims().get(JwtUtil.USER_ID_CLAIM);
+        Object issuedAt = jwt.getClaims().get(JwtClaimNames.IAT);
+        if (userId instanceof Number id && issuedAt instanceof Instant issued
+                && revocationService.isUserRevoked(id.intValue(), issued.getEpochSecond())) {
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        }
+        return OAuth2TokenValidatorResult.success();
+    }
+}
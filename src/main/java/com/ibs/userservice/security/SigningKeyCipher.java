@@ -0,0 +1,87 @@
+package com.ibs.userservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts JWT signing keys for the signing_keys table with AES-256-GCM under a key-encryption key supplied
+ * from outside the database, so reading the table or a backup is not enough to mint tokens. The kid is bound
+ * to each ciphertext as associated data, so a stored key cannot be moved to another row. The key-encryption key
+ * is read from the JWT_KEY_ENCRYPTION_KEY environment variable (base64 of 32 random bytes, e.g. from a secret
+ * store); only the dev profile falls back to a fixed development key.
+ */
+@Component
+public class SigningKeyCipher {
+
+    // Marks encrypted values; keys stored before encryption was added are plain base64 PKCS#8
+    private static final String PREFIX = "v1:";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey keyEncryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     *
+     * @param encodedKey base64 of a 32 byte AES key, from security.jwt.keys.encryptionKey
+     */
+    public SigningKeyCipher(@Value("${security.jwt.keys.encryptionKey}") String encodedKey) {
+        byte[] key = Base64.getDecoder().decode(encodedKey.trim());
+        if (key.length != 32) {
+            throw new IllegalArgumentException("security.jwt.keys.encryptionKey must be 32 bytes, base64 encoded");
+        }
+        this.keyEncryptionKey = new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     *
+     * @param privateKey PKCS#8 encoded private key
+     * @param kid        id of the key
+     * @return value to store in signing_keys.private_key
+     */
+    public String encrypt(byte[] privateKey, String kid) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(privateKey);
+            return PREFIX + Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key " + kid, e);
+        }
+    }
+
+    /**
+     *
+     * @param stored value of signing_keys.private_key
+     * @param kid    id of the key
+     * @return PKCS#8 encoded private key
+     * @throws GeneralSecurityException if the value was not encrypted under this key for this kid
+     */
+    public byte[] decrypt(String stored, String kid) throws GeneralSecurityException {
+        if (!isEncrypted(stored)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        byte[] data = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_BITS, data, 0, IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(data, IV_BYTES, data.length - IV_BYTES);
+    }
+
+    public boolean isEncrypted(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.entity.RevokedToken;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.repository.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps revoked access tokens in memory for the resource-server check. A Bloom filter answers the common
+ * "not revoked" case with a few bit reads; only on a filter hit are the exact sets consulted. Revocations are
+ * written to the database first, and the in-memory state is rebuilt from it at startup and on a schedule,
+ * which also picks up revocations made by other instances.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long accessTokenTtlMs;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    private volatile State state;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${security.jwt.expirationMs}") long accessTokenTtlMs,
+                                  @Value("${security.jwt.revocation.expectedEntries}") int expectedEntries,
+                                  @Value("${security.jwt.revocation.falsePositiveRate}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.accessTokenTtlMs = accessTokenTtlMs;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.state = new State(new RevocationBloomFilter(expectedEntries, falsePositiveRate),
+                ConcurrentHashMap.newKeySet(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Hot-path check run for every authenticated request.
+     *
+     * @param tokenId jti of the token
+     * @return true if this token was revoked
+     */
+    public boolean isTokenRevoked(String tokenId) {
+        State current = state;
+        return current.filter.mightContain(tokenId) && current.tokenIds.contains(tokenId);
+    }
+
+    /**
+     * Hot-path check run for every authenticated request. Takes a primitive id so the common miss does not box.
+     *
+     * @param userId         uid claim of the token
+     * @param issuedAtSecond iat of the token in epoch seconds
+     * @return true if all tokens of the user issued up to then were revoked
+     */
+    public boolean isUserRevoked(int userId, long issuedAtSecond) {
+        State current = state;
+        if (!current.filter.mightContain(userId)) {
+            return false;
+        }
+        Long revokedAtSecond = current.userRevokedAt.get(userId);
+        return revokedAtSecond != null && issuedAtSecond <= revokedAtSecond;
+    }
+
+    /**
+     *
+     * @param tokenId   jti of the access token to revoke
+     * @param expiresAt expiry of that token, after which the entry can be dropped
+     */
+    public synchronized void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(null, tokenId, null, Instant.now(), expiresAt));
+        State current = state;
+        current.tokenIds.add(tokenId);
+        current.filter.put(tokenId);
+        log.info("Revoked access token {}", tokenId);
+    }
+
+    /**
+     * Revokes every access token of the user issued up to now.
+     *
+     * @param userId user whose tokens should stop working
+     */
+    public synchronized void revokeUser(Integer userId) {
+        Instant now = Instant.now();
+        revokedTokenRepository.save(new RevokedToken(null, null, userId, now, now.plusMillis(accessTokenTtlMs)));
+        State current = state;
+        current.userRevokedAt.put(userId, now.getEpochSecond());
+        current.filter.put(userId.intValue());
+        log.info("Revoked all access tokens of user {}", userId);
+    }
+
+    /**
+     * Revokes the tokens of users that were deleted or made inactive, once that has committed. The revocation
+     * is written in a transaction of its own, since the user's transaction has already finished.
+     *
+     * @param event the user change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.ChangeType.DELETED || event.type() == UserChangedEvent.ChangeType.DEACTIVATED) {
+            event.userIds().forEach(this::revokeUser);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Drops expired entries and rebuilds the filter from the database, so it never fills up with tokens that
+     * have already expired.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.reloadIntervalMs}", initialDelayString = "${security.jwt.revocation.reloadIntervalMs}")
+    public synchronized void reload() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(now);
+
+        RevocationBloomFilter filter = new RevocationBloomFilter(Math.max(expectedEntries, active.size() * 2), falsePositiveRate);
+        Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+        Map<Integer, Long> userRevokedAt = new ConcurrentHashMap<>();
+        for (RevokedToken revoked : active) {
+            if (revoked.getTokenId() != null) {
+                tokenIds.add(revoked.getTokenId());
+                filter.put(revoked.getTokenId());
+            }
+            if (revoked.getUserId() != null) {
+                userRevokedAt.merge(revoked.getUserId(), revoked.getRevokedAt().getEpochSecond(), Math::max);
+                filter.put(revoked.getUserId().intValue());
+            }
+        }
+        state = new State(filter, tokenIds, userRevokedAt);
+        log.debug("Loaded {} active token revocations", active.size());
+    }
+
+    private record State(RevocationBloomFilter filter, Set<String> tokenIds, Map<Integer, Long> userRevokedAt) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.entity.RefreshToken;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and rotates opaque refresh tokens. Only a SHA-256 of each token is stored, so a refresh costs one
+ * indexed lookup instead of a password check. Every refresh token can be used once; presenting an already
+ * used token is treated as theft and revokes all refresh tokens of that user.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshExpirationMs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${security.jwt.refreshExpirationMs}") long refreshExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    /**
+     *
+     * @param user owner of the new token
+     * @return raw refresh token to hand to the client
+     */
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setUser(user);
+        refreshToken.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000L));
+        refreshTokenRepository.save(refreshToken);
+        return rawToken;
+    }
+
+    /**
+     * Uses up the given refresh token and issues its replacement.
+     *
+     * @param rawToken refresh token presented by the client
+     * @return the owning user and the replacement token
+     * @throws BadCredentialsException if the token is unknown, expired or was already used
+     * @throws DisabledException if the user has been deactivated
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token is required");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        User user = current.getUser();
+        if (!user.isActive()) {
+            throw new DisabledException("User is disabled");
+        }
+
+        if (!current.isRevoked() && current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+        if (current.isRevoked() || refreshTokenRepository.revoke(current.getId()) == 0) {
+            int revoked = refreshTokenRepository.revokeAllForUser(user.getUserId());
+            log.warn("Reuse of refresh token detected for user {}, revoked {} tokens", user.getUserId(), revoked);
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+        return new Rotation(user, issue(user));
+    }
+
+    /**
+     *
+     * @param rawToken refresh token that should no longer be accepted
+     */
+    public void revoke(String rawToken) {
+        if (rawToken != null && !rawToken.isBlank()) {
+            refreshTokenRepository.revokeByTokenHash(hash(rawToken));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refreshCleanupIntervalMs}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
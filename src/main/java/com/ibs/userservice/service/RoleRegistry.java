@@ -0,0 +1,129 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * All roles, loaded once at startup and held in an immutable snapshot indexed by id and by upper-cased name,
+ * so role lookups on the request path never reach the database. Call {@link #refresh()} after roles change.
+ * <p>
+ * The roles handed out are detached entities. They can be set on a user being written like a
+ * getReferenceById proxy, and unlike a proxy their name can be read without a query.
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    private static final long UNKNOWN_ROLE_RELOAD_INTERVAL_MS = 10_000L;
+
+    private final RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+    private volatile long lastReloadMs;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Reloads all roles and swaps in a new snapshot.
+     *
+     * @return the roles now loaded, sorted by name
+     */
+    @PostConstruct
+    public synchronized List<Role> refresh() {
+        snapshot = new Snapshot(roleRepository.findAll());
+        lastReloadMs = System.currentTimeMillis();
+        log.info("Loaded {} roles", snapshot.sorted.size());
+        return snapshot.sorted;
+    }
+
+    /**
+     *
+     * @param roleId role id
+     * @return the role, empty if it does not exist
+     */
+    public Optional<Role> findById(Integer roleId) {
+        if (roleId == null) {
+            return Optional.empty();
+        }
+        Role role = snapshot.byId.get(roleId);
+        if (role == null && reloadForUnknownRole()) {
+            role = snapshot.byId.get(roleId);
+        }
+        return Optional.ofNullable(role);
+    }
+
+    /**
+     *
+     * @param roleName role name in any case
+     * @return the role, empty if it does not exist
+     */
+    public Optional<Role> findByName(String roleName) {
+        if (roleName == null) {
+            return Optional.empty();
+        }
+        String key = roleName.trim().toUpperCase(Locale.ROOT);
+        Role role = snapshot.byName.get(key);
+        if (role == null && reloadForUnknownRole()) {
+            role = snapshot.byName.get(key);
+        }
+        return Optional.ofNullable(role);
+    }
+
+    /**
+     *
+     * @param roleId role id
+     * @return the role
+     * @throws RuntimeException if it does not exist
+     */
+    public Role getById(Integer roleId) {
+        return findById(roleId).orElseThrow(() -> new RuntimeException("Role not found"));
+    }
+
+    /**
+     *
+     * @return all roles sorted by name, unmodifiable
+     */
+    public List<Role> getAll() {
+        return snapshot.sorted;
+    }
+
+    // Picks up a role added directly in the database, while keeping unknown ids from driving DB load
+    private boolean reloadForUnknownRole() {
+        if (System.currentTimeMillis() - lastReloadMs < UNKNOWN_ROLE_RELOAD_INTERVAL_MS) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Integer, Role> byId;
+        private final Map<String, Role> byName;
+        private final List<Role> sorted;
+
+        private Snapshot(List<Role> roles) {
+            Map<Integer, Role> ids = new HashMap<>();
+            Map<String, Role> names = new HashMap<>();
+            for (Role role : roles) {
+                ids.put(role.getRoleId(), role);
+                names.put(role.getRoleName().toUpperCase(Locale.ROOT), role);
+            }
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(names);
+            this.sorted = roles.stream().sorted(Comparator.comparing(Role::getRoleName)).toList();
+        }
+    }
+}
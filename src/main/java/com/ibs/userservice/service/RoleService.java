@@ -1,19 +1,16 @@
 package com.ibs.userservice.service;
 
 import com.ibs.userservice.entity.Role;
-import com.ibs.userservice.repository.RoleRepository;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
 import java.util.List;
 
 @Service
 public class RoleService {
 
-    private final RoleRepository roleRepository;
-    public RoleService(RoleRepository roleRepository){
-        this.roleRepository = roleRepository;
+    private final RoleRegistry roleRegistry;
+    public RoleService(RoleRegistry roleRegistry){
+        this.roleRegistry = roleRegistry;
     }
 
     /**
@@ -21,6 +18,15 @@ public class RoleService {
      * @return returns all roles
      */
     public List<Role> getAllRoles(){
-        return roleRepository.findAll(Sort.sort(Role.class).by(Role::getRoleName));
+        return roleRegistry.getAll();
+    }
+
+    /**
+     * Reloads the roles held in memory; call after roles are changed in the database.
+     *
+     * @return returns all roles
+     */
+    public List<Role> refreshRoles(){
+        return roleRegistry.refresh();
     }
 }
@@ -0,0 +1,227 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResultDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.enums.BulkRowStatus;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.mapper.UserMapper;
+import com.ibs.userservice.repository.UserBatchRepository;
+import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.security.PasswordHashingExecutor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many users in one request. Every row is checked before any work is done, roles are resolved with a
+ * single query, passwords are hashed in parallel on the hashing pool, and the accepted rows are inserted in
+ * JDBC batches. Rows that fail a check are reported individually and do not stop the others.
+ * <p>
+ * Hashing runs while the caller waits, at roughly 250 ms per row spread over half the hashing threads, so
+ * user.bulk.maxCreateRows is kept to what finishes well inside a request timeout; larger sets go through the
+ * background CSV import.
+ */
+@Service
+@Slf4j
+public class UserBulkService {
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserBatchRepository userBatchRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserStatsService userStatsService;
+    private final int maxRows;
+
+    public UserBulkService(UserRepository userRepository,
+                           RoleRegistry roleRegistry,
+                           UserBatchRepository userBatchRepository,
+                           PasswordEncoder passwordEncoder,
+                           PasswordHashingExecutor passwordHashingExecutor,
+                           Validator validator,
+                           ApplicationEventPublisher eventPublisher,
+                           UserStatsService userStatsService,
+                           @Value("${user.bulk.maxCreateRows}") int maxRows) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.userBatchRepository = userBatchRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.userStatsService = userStatsService;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     *
+     * @param dtos users to create, at most user.bulk.maxCreateRows
+     * @return one result per row, in request order
+     */
+    public BulkUserResponseDTO createUsers(List<UserRequestDTO> dtos) {
+        if (dtos != null && dtos.size() > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " users can be created per request, use /api/v1/users/import for more");
+        }
+        return importUsers(dtos);
+    }
+
+    /**
+     * Same as {@link #createUsers(List)} without the row cap, for the background import, which has no caller
+     * waiting and sizes its own chunks.
+     *
+     * @param dtos users to create
+     * @return one result per row, in request order
+     */
+    BulkUserResponseDTO importUsers(List<UserRequestDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("At least one user is required");
+        }
+        try {
+            log.info("Entering into createUsers with {} rows", dtos.size());
+            BulkUserResultDTO[] results = new BulkUserResultDTO[dtos.size()];
+
+            validate(dtos, results);
+            Map<Integer, Role> roles = resolveRoles(dtos, results);
+            rejectConflicts(dtos, results);
+
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = 0; i < dtos.size(); i++) {
+                if (results[i] == null) {
+                    accepted.add(i);
+                }
+            }
+            List<String> hashes = passwordHashingExecutor.encodeAll(accepted, i -> passwordEncoder.encode(dtos.get(i).getPassword()));
+
+            List<User> users = new ArrayList<>(accepted.size());
+            for (int n = 0; n < accepted.size(); n++) {
+                UserRequestDTO dto = dtos.get(accepted.get(n));
+                User user = UserMapper.toEntity(dto, roles.get(dto.getRoleId()));
+                user.setPasswordHash(hashes.get(n));
+                users.add(user);
+            }
+            if (!users.isEmpty()) {
+                userBatchRepository.insertAll(users);
+                userStatsService.recordCreated(users);
+                eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.CREATED,
+                        users.stream().map(User::getUserId).collect(Collectors.toUnmodifiableSet())));
+            }
+            for (int n = 0; n < accepted.size(); n++) {
+                User user = users.get(n);
+                results[accepted.get(n)] = new BulkUserResultDTO(accepted.get(n), BulkRowStatus.CREATED, user.getUserId(), user.getUserName(), null);
+            }
+
+            log.info("Exit from createUsers, created {} of {}", users.size(), dtos.size());
+            return new BulkUserResponseDTO(dtos.size(), users.size(), dtos.size() - users.size(), Arrays.asList(results));
+        } catch (RuntimeException e) {
+            log.error("Exception occurred in createUsers, {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void validate(List<UserRequestDTO> dtos, BulkUserResultDTO[] results) {
+        for (int i = 0; i < dtos.size(); i++) {
+            UserRequestDTO dto = dtos.get(i);
+            if (dto == null) {
+                results[i] = rejected(i, null, BulkRowStatus.INVALID, Map.of("user", "User is required"));
+                continue;
+            }
+            Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new LinkedHashMap<>();
+                for (ConstraintViolation<UserRequestDTO> violation : violations) {
+                    errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                results[i] = rejected(i, dto, BulkRowStatus.INVALID, errors);
+            }
+        }
+    }
+
+    private Map<Integer, Role> resolveRoles(List<UserRequestDTO> dtos, BulkUserResultDTO[] results) {
+        Map<Integer, Role> roles = new HashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Optional<Role> role = roleRegistry.findById(dtos.get(i).getRoleId());
+            if (role.isPresent()) {
+                roles.put(role.get().getRoleId(), role.get());
+            } else {
+                results[i] = rejected(i, dtos.get(i), BulkRowStatus.INVALID, Map.of("roleId", "Role not found"));
+            }
+        }
+        return roles;
+    }
+
+    // Unique columns compare case-insensitively, as the default MySQL collation does
+    private void rejectConflicts(List<UserRequestDTO> dtos, BulkUserResultDTO[] results) {
+        Set<String> userNames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            if (results[i] == null) {
+                userNames.add(dtos.get(i).getUserName());
+                emails.add(dtos.get(i).getEmail());
+                phones.add(dtos.get(i).getUserPhone());
+            }
+        }
+        if (userNames.isEmpty()) {
+            return;
+        }
+        Set<String> takenUserNames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenPhones = new HashSet<>();
+        for (UserRepository.UserIdentifiers existing : userRepository.findByUserNameInOrEmailInOrUserPhoneIn(userNames, emails, phones)) {
+            takenUserNames.add(normalize(existing.getUserName()));
+            takenEmails.add(normalize(existing.getEmail()));
+            takenPhones.add(normalize(existing.getUserPhone()));
+        }
+
+        for (int i = 0; i < dtos.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            UserRequestDTO dto = dtos.get(i);
+            String userName = normalize(dto.getUserName());
+            String email = normalize(dto.getEmail());
+            String phone = normalize(dto.getUserPhone());
+            Map<String, String> errors = new LinkedHashMap<>();
+            if (takenUserNames.contains(userName)) {
+                errors.put("userName", "Username already exists");
+            }
+            if (takenEmails.contains(email)) {
+                errors.put("email", "Email already exists");
+            }
+            if (takenPhones.contains(phone)) {
+                errors.put("userPhone", "Phone number already exists");
+            }
+            if (!errors.isEmpty()) {
+                results[i] = rejected(i, dto, BulkRowStatus.CONFLICT, errors);
+                continue;
+            }
+            // Accepted rows claim their values, so later rows in the same request with them conflict
+            takenUserNames.add(userName);
+            takenEmails.add(email);
+            takenPhones.add(phone);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BulkUserResultDTO rejected(int index, UserRequestDTO dto, BulkRowStatus status, Map<String, String> errors) {
+        return new BulkUserResultDTO(index, status, null, dto == null ? null : dto.getUserName(), errors);
+    }
+}
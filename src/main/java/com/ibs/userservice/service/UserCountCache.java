@@ -0,0 +1,83 @@
+package com.ibs.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs paged user queries in the requested {@link CountMode}. Totals for CACHED are kept per filter signature
+ * until they expire or any user is created, updated or deleted.
+ */
+@Component
+public class UserCountCache {
+
+    // Filter signature -> number of matching users
+    private final Cache<List<Object>, Long> counts;
+
+    public UserCountCache(@Value("${user.countCache.maxSize}") long maxSize,
+                          @Value("${user.countCache.ttlSeconds}") long ttlSeconds,
+                          MeterRegistry meterRegistry) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "user.counts");
+    }
+
+    /**
+     *
+     * @param countMode  how the total is worked out
+     * @param pageable   requested page
+     * @param pageQuery  query returning the page with an exact count
+     * @param sliceQuery the same query without the count
+     * @param signature  values identifying the filter, the key of the cached total
+     * @param countQuery counts the users matching the filter
+     * @return a Page, or for NONE a Slice without a total
+     */
+    public <T> Slice<T> find(CountMode countMode,
+                             Pageable pageable,
+                             Function<Pageable, Page<T>> pageQuery,
+                             Function<Pageable, Slice<T>> sliceQuery,
+                             List<Object> signature,
+                             LongSupplier countQuery) {
+        if (countMode == CountMode.EXACT) {
+            return pageQuery.apply(pageable);
+        }
+        Slice<T> slice = sliceQuery.apply(pageable);
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        // A partly filled last page already gives the exact total
+        long total = !slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)
+                ? pageable.getOffset() + slice.getNumberOfElements()
+                : counts.get(signature, key -> countQuery.getAsLong());
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    /**
+     * Any write can change how many users match a filter, so every cached total is dropped.
+     *
+     * @param event the user change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        counts.invalidateAll();
+    }
+}
@@ -0,0 +1,138 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads users from a CSV file one line at a time. The header names the columns after the fields of
+ * {@link UserRequestDTO} (userName, email, userPhone, password, fullName, active, roleId) in any order;
+ * other columns are ignored. Fields may be quoted with double quotes, but a field cannot span lines.
+ */
+final class UserCsvReader implements Closeable {
+
+    private static final List<String> COLUMNS = List.of("username", "email", "userphone", "password", "fullname", "active", "roleid");
+
+    private final BufferedReader reader;
+    private final int[] positions = new int[COLUMNS.size()];
+    private long lineNumber;
+
+    UserCsvReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = nextNonBlankLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        Map<String, Integer> byName = new HashMap<>();
+        List<String> names = split(stripBom(header));
+        for (int i = 0; i < names.size(); i++) {
+            byName.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            positions[i] = byName.getOrDefault(COLUMNS.get(i), -1);
+        }
+        if (positions[0] < 0 || positions[1] < 0 || positions[6] < 0) {
+            throw new IllegalArgumentException("CSV header must contain userName, email and roleId columns");
+        }
+    }
+
+    /**
+     *
+     * @return the next row, or null at the end of the file
+     */
+    Row next() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = split(line);
+        UserRequestDTO dto = new UserRequestDTO();
+        dto.setUserName(field(fields, 0));
+        dto.setEmail(field(fields, 1));
+        dto.setUserPhone(field(fields, 2));
+        dto.setPassword(field(fields, 3));
+        dto.setFullName(field(fields, 4));
+        String active = field(fields, 5);
+        dto.setActive(active == null || Boolean.parseBoolean(active));
+
+        String roleId = field(fields, 6);
+        if (roleId != null) {
+            try {
+                dto.setRoleId(Integer.valueOf(roleId));
+            } catch (NumberFormatException e) {
+                return new Row(lineNumber, dto, Map.of("roleId", "Role ID must be a number"));
+            }
+        }
+        return new Row(lineNumber, dto, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextNonBlankLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    private String field(List<String> fields, int column) {
+        int position = positions[column];
+        if (position < 0 || position >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * @param lineNumber  line in the file, starting at 1 for the header
+     * @param user        parsed values
+     * @param parseErrors errors that make the row unusable, or null
+     */
+    record Row(long lineNumber, UserRequestDTO user, Map<String, String> parseErrors) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes users as CSV, one line per user. Fields containing a comma, quote or line break are quoted; the
+ * password hash is not part of the output. Fields a spreadsheet would run as a formula get a leading quote
+ * so they open as text.
+ */
+final class UserCsvWriter {
+
+    private static final String HEADER = "userId,userName,userPhone,email,fullName,active,roleId,roleName,createdAt,updatedAt";
+
+    private final Writer writer;
+
+    UserCsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void writeHeader() throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    void write(UserResponseDTO user) throws IOException {
+        field(user.getUserId(), false);
+        field(user.getUserName(), false);
+        field(user.getUserPhone(), false);
+        field(user.getEmail(), false);
+        field(user.getFullName(), false);
+        field(user.isActive(), false);
+        field(user.getRoleId(), false);
+        field(user.getRoleName(), false);
+        field(user.getCreatedAt(), false);
+        field(user.getUpdatedAt(), true);
+    }
+
+    private void field(Object value, boolean last) throws IOException {
+        if (value != null) {
+            writer.write(escape(value.toString()));
+        }
+        writer.write(last ? '\n' : ',');
+    }
+
+    static String escape(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
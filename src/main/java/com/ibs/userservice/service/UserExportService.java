@@ -0,0 +1,93 @@
+package com.ibs.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.enums.ExportFormat;
+import com.ibs.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every user to a stream while reading them from a forward-only cursor, so memory use does not depend
+ * on the number of users and the first rows are sent before the last are read.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserExportService {
+
+    // Rows written between flushes, so the client receives data while the export is still running
+    static final int FLUSH_EVERY = 500;
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     *
+     * @param format output format
+     * @param out    destination, left open
+     * @return number of users written
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        log.info("Entering into export, {}", format);
+        long count;
+        try (Stream<UserResponseDTO> users = userRepository.streamAllResponses()) {
+            count = switch (format) {
+                case JSON, NDJSON -> writeJson(users.iterator(), format, out);
+                case CSV -> writeCsv(users.iterator(), out);
+            };
+        }
+        log.info("Exit from export, {} users", count);
+        return count;
+    }
+
+    private long writeJson(Iterator<UserResponseDTO> users, ExportFormat format, OutputStream out) throws IOException {
+        long count = 0;
+        // Closing the generator flushes it; the response stream itself is left open
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter writer = format == ExportFormat.JSON
+                     ? objectMapper.writerFor(UserResponseDTO.class).writeValuesAsArray(generator)
+                     : objectMapper.writerFor(UserResponseDTO.class).withRootValueSeparator("\n").writeValues(generator)) {
+            while (users.hasNext()) {
+                writer.write(users.next());
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (format == ExportFormat.NDJSON && count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<UserResponseDTO> users, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        UserCsvWriter csv = new UserCsvWriter(writer);
+        csv.writeHeader();
+        long count = 0;
+        while (users.hasNext()) {
+            csv.write(users.next());
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.ImportJobStatusDTO;
+import com.ibs.userservice.dtos.responseDtos.ImportRowErrorDTO;
+import com.ibs.userservice.enums.ImportJobStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one CSV import. Written by the import worker and read by status requests, so counters are
+ * atomic and the rest is volatile or guarded by the failures list.
+ */
+final class UserImportJob {
+
+    private final String jobId;
+    private final String fileName;
+    private final Path file;
+    private final int maxFailureDetails;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<ImportRowErrorDTO> failures = new ArrayList<>();
+
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String message;
+
+    UserImportJob(String jobId, String fileName, Path file, int maxFailureDetails) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.file = file;
+        this.maxFailureDetails = maxFailureDetails;
+    }
+
+    String jobId() {
+        return jobId;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    void finished(ImportJobStatus finalStatus, String finalMessage) {
+        message = finalMessage;
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    void rowCreated() {
+        created.incrementAndGet();
+        rowsProcessed.incrementAndGet();
+    }
+
+    void rowRejected(long lineNumber, String userName, Map<String, String> errors) {
+        rejected.incrementAndGet();
+        rowsProcessed.incrementAndGet();
+        synchronized (failures) {
+            if (failures.size() < maxFailureDetails) {
+                failures.add(new ImportRowErrorDTO(lineNumber, userName, errors));
+            }
+        }
+    }
+
+    ImportJobStatusDTO toStatus() {
+        LocalDateTime start = startedAt;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long processed = rowsProcessed.get();
+        double rowsPerSecond = 0;
+        if (start != null) {
+            long elapsedMs = Math.max(1, Duration.between(start, end).toMillis());
+            rowsPerSecond = processed * 1000.0 / elapsedMs;
+        }
+        List<ImportRowErrorDTO> failureDetails;
+        synchronized (failures) {
+            failureDetails = List.copyOf(failures);
+        }
+        return ImportJobStatusDTO.builder()
+                .jobId(jobId)
+                .fileName(fileName)
+                .status(status)
+                .rowsProcessed(processed)
+                .created(created.get())
+                .rejected(rejected.get())
+                .rowsPerSecond(rowsPerSecond)
+                .submittedAt(submittedAt)
+                .startedAt(start)
+                .finishedAt(finishedAt)
+                .message(message)
+                .failures(failureDetails)
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package com.ibs.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResultDTO;
+import com.ibs.userservice.dtos.responseDtos.ImportJobStatusDTO;
+import com.ibs.userservice.enums.BulkRowStatus;
+import com.ibs.userservice.enums.ImportJobStatus;
+import com.ibs.userservice.exception.ThrottledException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports users from uploaded CSV files in the background. The upload is spooled to a temp file and the
+ * request returns at once with a job id; a worker then streams the file line by line and feeds fixed-size
+ * chunks through {@link UserBulkService}, so rows get the same checks, parallel hashing and batched inserts
+ * as the bulk endpoint while memory stays bounded by the chunk size.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private final UserBulkService userBulkService;
+    private final int chunkSize;
+    private final int maxFailureDetails;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, UserImportJob> jobs;
+
+    public UserImportService(UserBulkService userBulkService,
+                             @Value("${user.import.workers}") int workers,
+                             @Value("${user.import.queueCapacity}") int queueCapacity,
+                             @Value("${user.import.chunkSize}") int chunkSize,
+                             @Value("${user.import.maxFailureDetails}") int maxFailureDetails,
+                             @Value("${user.import.retentionMinutes}") long retentionMinutes) {
+        this.userBulkService = userBulkService;
+        this.chunkSize = chunkSize;
+        this.maxFailureDetails = maxFailureDetails;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(retentionMinutes))
+                .build();
+    }
+
+    /**
+     *
+     * @param file uploaded CSV
+     * @return status of the queued job
+     * @throws ThrottledException with 503 if too many imports are already queued
+     */
+    public ImportJobStatusDTO startImport(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("CSV file is required");
+        }
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("user-import-", ".csv");
+            file.transferTo(spooled);
+        } catch (IOException e) {
+            log.error("Exception occurred while storing import file, {}", e.getMessage());
+            throw new RuntimeException("Could not store the uploaded file", e);
+        }
+
+        UserImportJob job = new UserImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), spooled, maxFailureDetails);
+        jobs.put(job.jobId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.jobId());
+            deleteQuietly(spooled);
+            throw new ThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports in progress, please retry later", 60);
+        }
+        log.info("Queued user import {} for file {}", job.jobId(), file.getOriginalFilename());
+        return job.toStatus();
+    }
+
+    /**
+     *
+     * @param jobId id returned when the import was started
+     * @return current status, empty if the job is unknown or expired
+     */
+    public Optional<ImportJobStatusDTO> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(UserImportJob::toStatus);
+    }
+
+    void run(UserImportJob job) {
+        job.started();
+        try (UserCsvReader reader = new UserCsvReader(Files.newBufferedReader(job.file(), StandardCharsets.UTF_8))) {
+            List<UserCsvReader.Row> chunk = new ArrayList<>(chunkSize);
+            for (UserCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+                if (row.parseErrors() != null) {
+                    job.rowRejected(row.lineNumber(), row.user().getUserName(), row.parseErrors());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+            job.finished(ImportJobStatus.COMPLETED, null);
+            log.info("Completed user import {}", job.jobId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finished(ImportJobStatus.FAILED, "Import was interrupted");
+        } catch (Exception e) {
+            log.error("Exception occurred in user import {}, {}", job.jobId(), e.getMessage());
+            job.finished(ImportJobStatus.FAILED, e.getMessage());
+        } finally {
+            deleteQuietly(job.file());
+        }
+    }
+
+    private void importChunk(UserImportJob job, List<UserCsvReader.Row> chunk) throws InterruptedException {
+        List<UserRequestDTO> dtos = chunk.stream().map(UserCsvReader.Row::user).toList();
+        BulkUserResponseDTO response = createWithBackoff(dtos);
+        for (BulkUserResultDTO result : response.getResults()) {
+            if (result.getStatus() == BulkRowStatus.CREATED) {
+                job.rowCreated();
+            } else {
+                job.rowRejected(chunk.get(result.getIndex()).lineNumber(), result.getUserName(), result.getErrors());
+            }
+        }
+    }
+
+    // The hashing pool answers 503 while logins saturate it; an import has no caller waiting, so it backs off and retries
+    private BulkUserResponseDTO createWithBackoff(List<UserRequestDTO> dtos) throws InterruptedException {
+        while (true) {
+            try {
+                return userBulkService.importUsers(dtos);
+            } catch (RuntimeException e) {
+                ThrottledException throttled = findThrottled(e);
+                if (throttled == null) {
+                    throw e;
+                }
+                TimeUnit.SECONDS.sleep(Math.max(1L, throttled.getRetryAfterSeconds()));
+            }
+        }
+    }
+
+    private static ThrottledException findThrottled(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ThrottledException throttled) {
+                return throttled;
+            }
+        }
+        return null;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
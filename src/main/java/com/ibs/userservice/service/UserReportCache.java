@@ -0,0 +1,92 @@
+package com.ibs.userservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps recent user report pages, so a grid asking for the same page again does not re-run its data and count
+ * queries. Entries are keyed by the filter signature and the {@link UserWriteVersion} they were read at, which
+ * outdates all of them on any user change. Hits and misses are published as the user.report cache metrics.
+ */
+@Component
+public class UserReportCache {
+
+    private final UserWriteVersion userWriteVersion;
+
+    // Write version and filter signature -> report page, pending while it is read; null when disabled
+    private final AsyncCache<Key, ReportResponseDto> reports;
+
+    /**
+     *
+     * @param maxSize          maximum number of cached pages, 0 turns the cache off
+     * @param ttlSeconds       upper bound on the age of a page, covers writes made by other instances
+     * @param userWriteVersion version of the users table
+     * @param meterRegistry    registry for the user.report cache metrics
+     */
+    public UserReportCache(@Value("${user.reportCache.maxSize}") long maxSize,
+                           @Value("${user.reportCache.ttlSeconds}") long ttlSeconds,
+                           UserWriteVersion userWriteVersion,
+                           MeterRegistry meterRegistry) {
+        this.userWriteVersion = userWriteVersion;
+        if (maxSize <= 0) {
+            this.reports = null;
+            return;
+        }
+        this.reports = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, reports, "user.report");
+    }
+
+    /**
+     * Concurrent requests for a missing page wait for a single query. The query runs on the calling thread after
+     * a pending entry is placed, so no cache lock is held while it reads and other pages stay available. Failed
+     * queries are not cached.
+     *
+     * @param signature normalized values identifying the page, equal for requests that give the same result
+     * @param query     reads the page
+     * @return the cached or freshly read page
+     */
+    public ReportResponseDto get(List<Object> signature, Supplier<ReportResponseDto> query) {
+        if (reports == null) {
+            return query.get();
+        }
+        // Read before querying, so a write during the query leaves the result under the outdated version
+        Key key = new Key(userWriteVersion.current(), signature);
+        CompletableFuture<ReportResponseDto> pending = new CompletableFuture<>();
+        CompletableFuture<ReportResponseDto> page = reports.get(key, (k, executor) -> pending);
+        if (page == pending) {
+            try {
+                pending.complete(query.get());
+            } catch (RuntimeException e) {
+                // Fails the waiters too; Caffeine drops failed entries
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(long version, List<Object> signature) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.ReportExportStatusDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.enums.ExportJobStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one report export. Written by the export workers and read by status requests, so counters are
+ * atomic and the rest is volatile.
+ */
+final class UserReportExportJob {
+
+    static final String DOWNLOAD_PATH = "/api/v1/users/report/exports/%s/file";
+
+    private final String jobId;
+    private final Role role;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final boolean gzip;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicInteger partitionsCompleted = new AtomicInteger();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+    private volatile int partitions;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String message;
+    private volatile Path file;
+    private volatile long fileBytes;
+
+    UserReportExportJob(String jobId, Role role, LocalDateTime startDate, LocalDateTime endDate, boolean gzip) {
+        this.jobId = jobId;
+        this.role = role;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.gzip = gzip;
+    }
+
+    String jobId() {
+        return jobId;
+    }
+
+    Role role() {
+        return role;
+    }
+
+    LocalDateTime startDate() {
+        return startDate;
+    }
+
+    LocalDateTime endDate() {
+        return endDate;
+    }
+
+    boolean gzip() {
+        return gzip;
+    }
+
+    ExportJobStatus status() {
+        return status;
+    }
+
+    /**
+     *
+     * @return the finished file, null until the job has completed
+     */
+    Path file() {
+        return status == ExportJobStatus.COMPLETED ? file : null;
+    }
+
+    long fileBytes() {
+        return fileBytes;
+    }
+
+    void started(int partitionCount) {
+        partitions = partitionCount;
+        startedAt = LocalDateTime.now();
+        status = ExportJobStatus.RUNNING;
+    }
+
+    void partitionCompleted(long rows) {
+        rowsWritten.addAndGet(rows);
+        partitionsCompleted.incrementAndGet();
+    }
+
+    void completed(Path output, long bytes) {
+        file = output;
+        fileBytes = bytes;
+        finishedAt = LocalDateTime.now();
+        status = ExportJobStatus.COMPLETED;
+    }
+
+    void failed(String finalMessage) {
+        message = finalMessage;
+        finishedAt = LocalDateTime.now();
+        status = ExportJobStatus.FAILED;
+    }
+
+    ReportExportStatusDTO toStatus() {
+        ExportJobStatus current = status;
+        return ReportExportStatusDTO.builder()
+                .jobId(jobId)
+                .status(current)
+                .role(role.getRoleName())
+                .startDate(startDate)
+                .endDate(endDate)
+                .gzip(gzip)
+                .partitions(partitions)
+                .partitionsCompleted(partitionsCompleted.get())
+                .rowsWritten(rowsWritten.get())
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .message(message)
+                .downloadUrl(current == ExportJobStatus.COMPLETED ? DOWNLOAD_PATH.formatted(jobId) : null)
+                .build();
+    }
+}
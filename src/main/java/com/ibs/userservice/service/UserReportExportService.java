@@ -0,0 +1,279 @@
+package com.ibs.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ibs.userservice.dtos.responseDtos.ReportExportStatusDTO;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.exception.ThrottledException;
+import com.ibs.userservice.repository.UserReportRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the full result of the user report as one CSV file in the background. The matching users are split
+ * into userId ranges that are scanned in parallel, each streamed to its own temp file, and the files are then
+ * joined in id order behind a single header, optionally gzipped. Status is polled by job id and the file is
+ * downloaded once the job has completed.
+ * <p>
+ * Jobs and their files are held by the instance that ran the export, so status and download requests have to
+ * reach that instance. Finished files are kept for the retention period, but only up to a total size; beyond
+ * it the least valuable ones are deleted early.
+ */
+@Service
+@Slf4j
+public class UserReportExportService {
+
+    private final UserReportRepository userReportRepository;
+    private final RoleRegistry roleRegistry;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int rowsPerPartition;
+    private final int maxPartitions;
+    private final long maxRetainedBytes;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ThreadPoolExecutor partitionExecutor;
+    private final Cache<String, UserReportExportJob> jobs;
+
+    public UserReportExportService(UserReportRepository userReportRepository,
+                                   RoleRegistry roleRegistry,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${user.reportExport.workers}") int workers,
+                                   @Value("${user.reportExport.queueCapacity}") int queueCapacity,
+                                   @Value("${user.reportExport.parallelism}") int parallelism,
+                                   @Value("${user.reportExport.rowsPerPartition}") int rowsPerPartition,
+                                   @Value("${user.reportExport.maxPartitions}") int maxPartitions,
+                                   @Value("${user.reportExport.retentionMinutes}") long retentionMinutes,
+                                   @Value("${user.reportExport.maxRetainedMb}") long maxRetainedMb) {
+        this.userReportRepository = userReportRepository;
+        this.roleRegistry = roleRegistry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rowsPerPartition = rowsPerPartition;
+        this.maxPartitions = maxPartitions;
+        this.maxRetainedBytes = maxRetainedMb * 1024 * 1024;
+        this.jobExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                daemonThreads("user-report-export-"));
+        // Each running range holds a pooled connection while it streams, so keep this below the connection pool size
+        this.partitionExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads("user-report-range-"));
+        // Weighed in KB of the finished file; queued and running jobs weigh nothing and are never evicted
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(retentionMinutes))
+                .maximumWeight(maxRetainedMb * 1024)
+                .<String, UserReportExportJob>weigher((jobId, job) -> (int) Math.min(Integer.MAX_VALUE, (job.fileBytes() + 1023) / 1024))
+                .<String, UserReportExportJob>removalListener((jobId, job, cause) -> {
+                    // Completed jobs are put again to be weighed, which must not delete their file
+                    if (cause != RemovalCause.REPLACED && job != null && job.file() != null) {
+                        deleteQuietly(job.file());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     *
+     * @param role      role of the users
+     * @param startDate created on or after, may be null
+     * @param endDate   created on or before, may be null
+     * @param gzip      whether to gzip the file
+     * @return status of the queued job
+     * @throws ThrottledException with 503 if too many exports are already queued
+     */
+    public ReportExportStatusDTO startExport(String role, LocalDateTime startDate, LocalDateTime endDate, boolean gzip) {
+        Role roleData = roleRegistry.findByName(role).orElseThrow(() -> new IllegalArgumentException("Invalid role, " + role));
+        UserReportExportJob job = new UserReportExportJob(UUID.randomUUID().toString(), roleData, startDate, endDate, gzip);
+        jobs.put(job.jobId(), job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.jobId());
+            throw new ThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports in progress, please retry later", 60);
+        }
+        log.info("Queued report export {} for role {}", job.jobId(), roleData.getRoleName());
+        return job.toStatus();
+    }
+
+    /**
+     *
+     * @param jobId id returned when the export was started
+     * @return current status, empty if the job is unknown or expired
+     */
+    public Optional<ReportExportStatusDTO> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(UserReportExportJob::toStatus);
+    }
+
+    /**
+     *
+     * @param jobId id returned when the export was started
+     * @return the exported file, empty unless the job has completed
+     */
+    public Optional<Path> getFile(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(UserReportExportJob::file);
+    }
+
+    void run(UserReportExportJob job) {
+        List<Path> parts = new ArrayList<>();
+        Path output = null;
+        try {
+            UserReportRepository.IdRange idRange = readOnlyTransaction.execute(status ->
+                    userReportRepository.findIdRange(job.role(), job.startDate(), job.endDate()));
+            List<Range> ranges = idRange == null || idRange.count() == 0
+                    ? List.of()
+                    : partition(idRange.minId(), idRange.maxId(), idRange.count(), rowsPerPartition, maxPartitions);
+            job.started(ranges.size());
+
+            List<Future<Long>> futures = new ArrayList<>(ranges.size());
+            for (Range range : ranges) {
+                Path part = Files.createTempFile("user-report-" + job.jobId() + "-", ".part");
+                parts.add(part);
+                futures.add(partitionExecutor.submit(() -> {
+                    long rows = writeRange(job, range, part);
+                    job.partitionCompleted(rows);
+                    return rows;
+                }));
+            }
+            try {
+                for (Future<Long> future : futures) {
+                    future.get();
+                }
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+            }
+
+            output = Files.createTempFile("user-report-" + job.jobId() + "-", job.gzip() ? ".csv.gz" : ".csv");
+            join(parts, output, job.gzip());
+            long bytes = Files.size(output);
+            if (bytes > maxRetainedBytes) {
+                throw new IllegalStateException("Export is larger than the " + maxRetainedBytes / (1024 * 1024) + " MB that can be kept, narrow the date range");
+            }
+            job.completed(output, bytes);
+            jobs.asMap().replace(job.jobId(), job);
+            log.info("Completed report export {}, {} rows in {} ranges", job.jobId(), job.toStatus().getRowsWritten(), ranges.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed("Export was interrupted");
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Exception occurred in report export {}, {}", job.jobId(), cause.getMessage());
+            job.failed(cause.getMessage());
+        } finally {
+            parts.forEach(UserReportExportService::deleteQuietly);
+            if (output != null && job.file() == null) {
+                deleteQuietly(output);
+            }
+        }
+    }
+
+    private long writeRange(UserReportExportJob job, Range range, Path part) {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<UserResponseDTO> users = userReportRepository.streamResponses(
+                    job.role(), job.startDate(), job.endDate(), range.fromId(), range.toId());
+                 Writer writer = Files.newBufferedWriter(part, StandardCharsets.UTF_8)) {
+                UserCsvWriter csv = new UserCsvWriter(writer);
+                long rows = 0;
+                for (Iterator<UserResponseDTO> it = users.iterator(); it.hasNext(); rows++) {
+                    csv.write(it.next());
+                }
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void join(List<Path> parts, Path output, boolean gzip) throws IOException {
+        OutputStream file = new BufferedOutputStream(Files.newOutputStream(output));
+        try (OutputStream out = gzip ? new GZIPOutputStream(file) : file) {
+            Writer header = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            new UserCsvWriter(header).writeHeader();
+            header.flush();
+            for (Path part : parts) {
+                Files.copy(part, out);
+            }
+        }
+    }
+
+    /**
+     * Splits [minId, maxId] into ranges of equal width, about rowsPerPartition users each and at most
+     * maxPartitions of them.
+     */
+    static List<Range> partition(int minId, int maxId, long count, int rowsPerPartition, int maxPartitions) {
+        int partitions = (int) Math.max(1, Math.min(maxPartitions, (count + rowsPerPartition - 1) / rowsPerPartition));
+        long width = ((long) maxId - minId + partitions) / partitions;
+        List<Range> ranges = new ArrayList<>(partitions);
+        for (long from = minId; from <= maxId; from += width) {
+            ranges.add(new Range((int) from, (int) Math.min(maxId, from + width - 1)));
+        }
+        return ranges;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file);
+        }
+    }
+
+    /**
+     * Expires jobs and deletes their files on a schedule, since the cache only cleans up while it is used.
+     */
+    @Scheduled(fixedDelayString = "${user.reportExport.cleanupIntervalMs}", initialDelayString = "${user.reportExport.cleanupIntervalMs}")
+    public void cleanUp() {
+        jobs.cleanUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        partitionExecutor.shutdownNow();
+        jobs.invalidateAll();
+    }
+
+    record Range(int fromId, int toId) {
+    }
+}
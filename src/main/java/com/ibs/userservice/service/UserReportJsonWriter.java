@@ -0,0 +1,108 @@
+package com.ibs.userservice.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
+import com.ibs.userservice.enums.ReportLayout;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes the user report field by field through a streaming generator, without building a tree or looking
+ * up serializers for each row. The field names and date format match the serialized ReportResponseDto.
+ */
+@Component
+public class UserReportJsonWriter {
+
+    static final List<String> COLUMNS = List.of("userId", "fullName", "email", "phone", "role", "active", "createdAt");
+
+    private final JsonFactory jsonFactory;
+
+    public UserReportJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     *
+     * @param report report to write
+     * @param layout ROWS for one object per user, COLUMNAR for the column names once and an array per user
+     * @param out    destination, left open
+     */
+    public void write(ReportResponseDto report, ReportLayout layout, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            if (layout == ReportLayout.COLUMNAR) {
+                generator.writeArrayFieldStart("columns");
+                for (String column : COLUMNS) {
+                    generator.writeString(column);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeArrayFieldStart("data");
+            for (UserReportRow row : report.getData()) {
+                if (layout == ReportLayout.COLUMNAR) {
+                    writeValues(generator, row);
+                } else {
+                    writeObject(generator, row);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("page", report.getPage());
+            generator.writeNumberField("size", report.getSize());
+            generator.writeFieldName("total");
+            if (report.getTotal() != null) {
+                generator.writeNumber(report.getTotal());
+            } else {
+                generator.writeNull();
+            }
+            generator.writeBooleanField("hasNext", report.isHasNext());
+            generator.writeEndObject();
+        }
+        out.flush();
+    }
+
+    private static void writeObject(JsonGenerator generator, UserReportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("userId");
+        writeInteger(generator, row.getUserId());
+        generator.writeStringField("fullName", row.getFullName());
+        generator.writeStringField("email", row.getEmail());
+        generator.writeStringField("phone", row.getPhone());
+        generator.writeStringField("role", row.getRole());
+        generator.writeBooleanField("active", row.isActive());
+        generator.writeStringField("createdAt", format(row.getCreatedAt()));
+        generator.writeEndObject();
+    }
+
+    // Same order as COLUMNS
+    private static void writeValues(JsonGenerator generator, UserReportRow row) throws IOException {
+        generator.writeStartArray();
+        writeInteger(generator, row.getUserId());
+        generator.writeString(row.getFullName());
+        generator.writeString(row.getEmail());
+        generator.writeString(row.getPhone());
+        generator.writeString(row.getRole());
+        generator.writeBoolean(row.isActive());
+        generator.writeString(format(row.getCreatedAt()));
+        generator.writeEndArray();
+    }
+
+    private static void writeInteger(JsonGenerator generator, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+
+    private static String format(LocalDateTime value) {
+        return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : null;
+    }
+}
@@ -1,23 +1,29 @@
 package com.ibs.userservice.service;
 
 import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
-import com.ibs.userservice.entity.User;
-import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.repository.UserReportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserReportService {
 
-    private final UserRepository userRepository;
+    private final UserReportRepository userReportRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserCountCache userCountCache;
+    private final UserReportCache userReportCache;
 
     /**
      *
@@ -26,9 +32,11 @@ public class UserReportService {
      * @param endDate end date
      * @param page page
      * @param size size
-     * @param sortField sort field
+     * @param sortField sort field, one of UserReportRepository.SORTABLE_FIELDS
      * @param sortDir sort direction
+     * @param countMode how the total is worked out
      * @return ReportResponseDto
+     * @throws IllegalArgumentException if the page, sort field or sort direction is not valid
      */
     public ReportResponseDto getUserReport(
             String role,
@@ -37,41 +45,48 @@ public class UserReportService {
             int page,
             int size,
             String sortField,
-            String sortDir
+            String sortDir,
+            CountMode countMode
     ) {
+        // Checked before the try, so a bad request surfaces as itself rather than wrapped as a failed query
+        Pageable pageable = PageRequest.of(page - 1, size, sort(sortField, sortDir));
         try {
             log.info("Fetching user report");
-            // Sorting setup
-            Sort sort = Sort.unsorted();
-            if (sortField != null && !sortField.isBlank()) {
-                sort = Sort.by(Sort.Direction.fromString(sortDir), sortField);
+            // Unknown roles match no users, so there is nothing to query
+            Role roleData = roleRegistry.findByName(role).orElse(null);
+            if (roleData == null) {
+                return new ReportResponseDto(List.of(), page, size, countMode == CountMode.NONE ? null : 0L, false);
             }
 
-            Pageable pageable = PageRequest.of(page - 1, size, sort);
+            // Keyed on the resolved role and page request, so spellings of the same role or sort share an entry
+            return userReportCache.get(Arrays.asList(roleData.getRoleId(), startDate, endDate, pageable, countMode), () -> {
+                // DB call, selecting the report columns straight into typed rows
+                Slice<UserReportRow> rows = userCountCache.find(countMode, pageable,
+                        p -> userReportRepository.findRows(roleData, startDate, endDate, p),
+                        p -> userReportRepository.findRowSlice(roleData, startDate, endDate, p),
+                        Arrays.asList("report", roleData.getRoleId(), startDate, endDate),
+                        () -> userReportRepository.count(roleData, startDate, endDate));
 
-            // DB call
-            Page<User> userPage = userRepository.findByRoleAndDateRange(
-                    role.toUpperCase(), startDate, endDate, pageable
-            );
-
-            // Map to simple DTOs or maps
-            List<Map<String, Object>> data = userPage.getContent().stream()
-                    .map(u -> Map.<String,Object>of(
-                            "userId", u.getUserId(),
-                            "fullName", u.getFullName(),
-                            "email", u.getEmail(),
-                            "phone", u.getUserPhone(),
-                            "role", u.getRole().getRoleName(),
-                            "active", u.isActive(),
-                            "createdAt", u.getCreatedAt()
-                    ))
-                    .toList();
-
-            // Return response DTO
-            return new ReportResponseDto(data, page, size, userPage.getTotalElements());
+                // Return response DTO
+                Long total = rows instanceof Page<UserReportRow> counted ? counted.getTotalElements() : null;
+                return new ReportResponseDto(rows.getContent(), page, size, total, rows.hasNext());
+            });
         } catch (Exception e) {
             log.error("Exception occurred while fetching user report");
             throw new RuntimeException(e);
         }
     }
+
+    private static Sort sort(String sortField, String sortDir) {
+        if (sortField == null || sortField.isBlank()) {
+            return Sort.unsorted();
+        }
+        if (!UserReportRepository.SORTABLE_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Report cannot be sorted by " + sortField
+                    + ", use one of " + String.join(", ", new TreeSet<>(UserReportRepository.SORTABLE_FIELDS)));
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sortDir)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction, " + sortDir));
+        return Sort.by(direction, sortField);
+    }
 }
@@ -0,0 +1,89 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.UserScrollResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset pagination over users in userId order. Each slice continues after the last userId of the previous one
+ * with a range scan on the key, so deep slices cost the same as the first and no count query is run.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserScrollService {
+
+    static final int MAX_SIZE = 1000;
+
+    private static final String CURSOR_PREFIX = "u:";
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+
+    /**
+     *
+     * @param after cursor from the previous slice, or null to start from the beginning
+     * @param size  users per slice
+     * @return UserScrollResponseDTO
+     */
+    public UserScrollResponseDTO getUsers(String after, int size) {
+        validateSize(size);
+        log.info("Entering into getUsers, after {} size {}", after, size);
+        return toResponse(userRepository.findResponsesAfter(decode(after), PageRequest.ofSize(size)));
+    }
+
+    /**
+     *
+     * @param role  role of the users
+     * @param after cursor from the previous slice, or null to start from the beginning
+     * @param size  users per slice
+     * @return UserScrollResponseDTO
+     */
+    public UserScrollResponseDTO getUsersByRole(String role, String after, int size) {
+        validateSize(size);
+        log.info("Entering into getUsersByRole, {} after {} size {}", role, after, size);
+        Role roleData = roleRegistry.findByName(role).orElseThrow(() -> new RuntimeException("Invalid role, " + role));
+        return toResponse(userRepository.findResponsesByRoleAfter(roleData, decode(after), PageRequest.ofSize(size)));
+    }
+
+    static String encode(int userId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + userId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(CURSOR_PREFIX)) {
+                return Integer.parseInt(value.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed base64 or number, reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    private static void validateSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    private static UserScrollResponseDTO toResponse(Slice<UserResponseDTO> slice) {
+        List<UserResponseDTO> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? encode(content.getLast().getUserId()) : null;
+        return new UserScrollResponseDTO(content, content.size(), slice.hasNext(), nextCursor);
+    }
+}
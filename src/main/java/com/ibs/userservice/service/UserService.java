@@ -1,24 +1,34 @@
 package com.ibs.userservice.service;
 
 import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserDeleteResponseDTO;
 import com.ibs.userservice.dtos.responseDtos.SlotResponseDto;
 import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.exception.ResourceNotFoundException;
 import com.ibs.userservice.feign.SlotClient;
 import com.ibs.userservice.mapper.UserMapper;
 import com.ibs.userservice.entity.Role;
 import com.ibs.userservice.entity.User;
-import com.ibs.userservice.repository.RoleRepository;
 import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.repository.UserStatsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -30,9 +40,23 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
     private final SlotClient slotClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCountCache userCountCache;
+    private final UserStatsService userStatsService;
+
+    // Soft delete only clears users.active, so deleting needs no cascades and keeps history
+    @Value("${user.delete.soft}")
+    private boolean softDelete;
+
+    @Value("${user.bulk.maxRows}")
+    private int maxBulkRows;
+
+    // With the second-level cache on, single users are read through the cached entity instead of the projection
+    @Value("${user.cache.secondLevel.enabled}")
+    private boolean secondLevelCache;
 
     /**
      *
@@ -42,12 +66,14 @@ public class UserService {
     public UserResponseDTO createUser(UserRequestDTO dto) {
         try {
             log.info("Entering into createUser with data, {}", dto);
-            Role role = roleRepository.findById(dto.getRoleId()).orElseThrow(() -> new RuntimeException("Role not found"));
+            Role role = roleRegistry.getById(dto.getRoleId());
 
             User user = UserMapper.toEntity(dto, role);
             user.setPasswordHash(passwordEncoder.encode(dto.getPassword()));
 
             User savedUser = userRepository.save(user);
+            userStatsService.recordCreated(List.of(savedUser));
+            eventPublisher.publishEvent(UserChangedEvent.created(savedUser.getUserId()));
             log.info("Exit from createUser with data, {}", dto);
             return UserMapper.toResponseDTO(savedUser);
         } catch (RuntimeException e) {
@@ -58,23 +84,31 @@ public class UserService {
 
     /**
      *
-     * @return List<UserResponseDTO>
+     * @param pageable  requested page
+     * @param countMode how the total is worked out
+     * @return a Page, or for CountMode.NONE a Slice without a total
      */
-    public Page<UserResponseDTO> getAllUsers(Pageable pageable) {
-        Page<User> userPage = userRepository.findAll(pageable);
-        return userPage.map(UserMapper::toResponseDTO);
+    @Transactional(readOnly = true)
+    public Slice<UserResponseDTO> getAllUsers(Pageable pageable, CountMode countMode) {
+        return userCountCache.find(countMode, pageable, userRepository::findAllResponses, userRepository::findResponseSlice,
+                List.of("users"), userRepository::count);
     }
 
     /**
+     * Served from the users cache region when the second-level cache is on, otherwise from the projection query,
+     * which reads only the response columns. The password hash is never part of the response.
      *
      * @param id userid
      * @return UserResponseDTO
      */
+    @Transactional(readOnly = true)
     public UserResponseDTO getUserById(Integer id) {
         try {
             log.info("Entering into getUserById, {}", id);
-            User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
-            return UserMapper.toResponseDTO(user);
+            if (secondLevelCache) {
+                return userRepository.findById(id).map(UserMapper::toResponseDTO).orElseThrow(() -> new RuntimeException("User not found"));
+            }
+            return userRepository.findResponseById(id).orElseThrow(() -> new RuntimeException("User not found"));
         } catch (RuntimeException e) {
             log.error("Exception occurred getUserById ,{}", e.getMessage());
             throw new RuntimeException(e);
@@ -92,7 +126,9 @@ public class UserService {
             log.info("Entering into updateUser, {}", dto);
             User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
 
-            Role role = roleRepository.findById(dto.getRoleId()).orElseThrow(() -> new RuntimeException("Role not found"));
+            Role role = roleRegistry.getById(dto.getRoleId());
+            Integer oldRoleId = user.getRole().getRoleId();
+            boolean wasActive = user.isActive();
 
             user.setUserName((dto.getUserName()));
             user.setEmail(dto.getEmail());
@@ -100,12 +136,13 @@ public class UserService {
             user.setRole(role);
             user.setUserPhone(dto.getUserPhone());
             user.setActive(dto.isActive());
-            user.setPasswordHash(dto.getPassword());
             if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
                 user.setPasswordHash(passwordEncoder.encode(dto.getPassword()));
             }
 
             User updatedUser = userRepository.save(user);
+            userStatsService.recordUpdated(updatedUser, oldRoleId, wasActive);
+            eventPublisher.publishEvent(wasActive && !updatedUser.isActive() ? UserChangedEvent.deactivated(id) : UserChangedEvent.updated(id));
             log.info("Exit from updateUser");
             return UserMapper.toResponseDTO(updatedUser);
         } catch (RuntimeException e) {
@@ -115,20 +152,50 @@ public class UserService {
     }
 
     /**
+     * Deletes with a single statement; its row count tells whether the user existed, or with soft delete whether
+     * it was still active.
      *
      * @param id userid
+     * @throws ResourceNotFoundException if no user has this id, or it was already deleted
      */
     public void deleteUser(Integer id) {
         log.info("Entering into deleteUser, {}", id);
-        try {
-            if (!userRepository.existsById(id)) {
-                throw new RuntimeException("User not found");
-            }
-            userRepository.deleteById(id);
-        } catch (RuntimeException e) {
-            log.error("Exception occurred in deleteUser, {}", e.getMessage());
-            throw new RuntimeException(e);
+        if (removeAll(List.of(id)) == 0) {
+            throw new ResourceNotFoundException("User not found");
         }
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+    }
+
+    /**
+     *
+     * @param ids userids; ids that do not exist or were already deleted are skipped
+     * @return BulkUserDeleteResponseDTO with the number of users deleted by this request
+     */
+    public BulkUserDeleteResponseDTO deleteUsers(List<Integer> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("ids must not be empty or contain null");
+        }
+        if (ids.size() > maxBulkRows) {
+            throw new IllegalArgumentException("At most " + maxBulkRows + " users can be deleted per request");
+        }
+        log.info("Entering into deleteUsers with {} ids", ids.size());
+        Set<Integer> userIds = new LinkedHashSet<>(ids);
+        int deleted = removeAll(userIds);
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.DELETED, Set.copyOf(userIds)));
+        }
+        log.info("Exit from deleteUsers, deleted {}", deleted);
+        return new BulkUserDeleteResponseDTO(userIds.size(), deleted);
+    }
+
+    private int removeAll(Collection<Integer> userIds) {
+        // Read first, so the stats know which roles and days lose users
+        List<UserStatsRepository.DailyStats> counts = userStatsService.countsOf(userIds);
+        int removed = softDelete ? userRepository.deactivateAllByUserIdIn(userIds) : userRepository.deleteAllByUserIdIn(userIds);
+        if (removed > 0) {
+            userStatsService.recordRemoved(counts, softDelete);
+        }
+        return removed;
     }
 
     /**
@@ -136,15 +203,20 @@ public class UserService {
      * @param role role of the user
      * @param page page value from UI
      * @param size size value from UI
+     * @param countMode how the total is worked out
      * @return returns user details based on role
      */
-    public Page<UserResponseDTO> getUsersByRole(String role, int page, int size) {
+    @Transactional(readOnly = true)
+    public Slice<UserResponseDTO> getUsersByRole(String role, int page, int size, CountMode countMode) {
         try {
-            log.info("Entering into getUsersByRole: {} page: {} size: {}", role, page, size);
+            log.info("Entering into getUsersByRole: {} page: {} size: {} count: {}", role, page, size, countMode);
             PageRequest pageable = PageRequest.of(page, size);
-            Role roleData = roleRepository.findByRoleNameIgnoreCase(role).orElseThrow(() -> new RuntimeException("Invalid rome ," + role));
-            Page<User> userPage = userRepository.findByRole(roleData, pageable);
-            return userPage.map(UserMapper::toResponseDTO);
+            Role roleData = roleRegistry.findByName(role).orElseThrow(() -> new RuntimeException("Invalid rome ," + role));
+            return userCountCache.find(countMode, pageable,
+                    p -> userRepository.findResponsesByRole(roleData, p),
+                    p -> userRepository.findResponseSliceByRole(roleData, p),
+                    Arrays.asList("role", roleData.getRoleId()),
+                    () -> userRepository.countByRole(roleData));
         } catch (Exception e) {
             log.error("Exception occurred in getUsersByRole, {}", e.getMessage());
             throw new RuntimeException(e);
@@ -156,12 +228,14 @@ public class UserService {
      * @param role user role
      * @return list users by role
      */
+    @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsersByRole(String role) {
-        return userRepository.findByRole_RoleNameIgnoreCase(role).stream().map(UserMapper::toResponseDTO).toList();
+        return roleRegistry.findByName(role).map(userRepository::findResponsesByRole).orElse(List.of());
     }
 
     /**
-     * connect to interview-scheduler service via feign client and slot details
+     * connect to interview-scheduler service via feign client and slot details. Not transactional, so no
+     * connection is held during the remote call; the lookup runs in the repository's own read-only transaction.
      *
      * @param startTime key field in slot table and get from UI
      * @param endTime   key field in slot table and get from UI
@@ -178,32 +252,22 @@ public class UserService {
             if (userAsPanelistIds.isEmpty()) {
                 return Collections.emptyList();
             }
-            List<User> users = userRepository.findAllById(userAsPanelistIds);
-            return users.stream().map(UserMapper::toResponseDTO).toList();
+            return userRepository.findResponsesByUserIdIn(userAsPanelistIds);
         } catch (Exception e) {
             throw new RuntimeException("Exception occurred at feign " + e.getMessage());
         }
     }
 
-    /**
-     *
-     * @return List<UserResponseDTO>
-     */
-    public List<UserResponseDTO> getAllUsers() {
-        List<User> userPage = userRepository.findAll();
-        return userPage.stream().map(UserMapper::toResponseDTO).toList();
-    }
-
     /**
      *
      * @return List<UserResponseDTO>
      */
     public List<UserResponseDTO> getPendingPanelists() {
         log.info("Fetching all pending panellist");
-        List<User> panelists = userRepository.findByRole_RoleNameIgnoreCase("PANEL");
+        List<UserResponseDTO> panelists = roleRegistry.findByName("PANEL").map(userRepository::findResponsesByRole).orElse(List.of());
         try {
             List<SlotResponseDto> slots = slotClient.getAllSlots();
-            return panelists.stream().filter(p -> slots.stream().noneMatch(s -> Objects.equals(s.getPanelistId(), p.getUserId()))).map(UserMapper::toResponseDTO).toList();
+            return panelists.stream().filter(p -> slots.stream().noneMatch(s -> Objects.equals(s.getPanelistId(), p.getUserId()))).toList();
         } catch (Exception e) {
             log.error("Exception occurred at getPendingPanelists");
             throw new RuntimeException(e);
@@ -0,0 +1,258 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.DailySignupsDTO;
+import com.ibs.userservice.dtos.responseDtos.RoleUserStatsDTO;
+import com.ibs.userservice.dtos.responseDtos.UserStatsSummaryDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.UserStatsRepository;
+import com.ibs.userservice.repository.UserStatsRepository.DailyStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dashboard user counts, answered from in-memory counters per role and sign-up day, so a summary costs
+ * O(roles x days) instead of a scan of users. Writers report each change; once the change has committed it is
+ * added to the user_daily_stats rollup, in a transaction of its own, and to the counters. The rollup is rebuilt
+ * from users on a schedule and the counters reloaded from it, which corrects failed deltas, races with concurrent
+ * writes and changes made by other instances.
+ */
+@Service
+@Slf4j
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final RoleRegistry roleRegistry;
+
+    private volatile ConcurrentHashMap<Key, Counts> counters = new ConcurrentHashMap<>();
+
+    // Deltas are written under the read lock and the counters replaced under the write lock, so a delta never
+    // lands between a rebuild and the reload of the counters from it
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Moved on under the write lock once a rebuild has committed. A delta notes it as soon as its change has
+    // committed; if a rebuild committed after that, the change was already read by the rebuild (its locking read
+    // and the user write wait for each other) and the delta is dropped instead of counted twice. A change whose
+    // commit and delta straddle the very end of a rebuild can still be miscounted until the next reconcile.
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserStatsService(UserStatsRepository userStatsRepository, RoleRegistry roleRegistry) {
+        this.userStatsRepository = userStatsRepository;
+        this.roleRegistry = roleRegistry;
+    }
+
+    /**
+     * Replaces the counters with the stored rollup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            ConcurrentHashMap<Key, Counts> loaded = new ConcurrentHashMap<>();
+            for (DailyStats row : userStatsRepository.findAll()) {
+                loaded.put(new Key(row.roleId(), row.signupDate()), new Counts(row.users(), row.activeUsers()));
+            }
+            counters = loaded;
+            log.debug("Loaded user stats for {} role days", loaded.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the rollup from users and reloads the counters. Deltas of changes committed meanwhile wait for it
+     * and are then dropped, since the rebuild has counted them.
+     */
+    @Scheduled(fixedDelayString = "${user.stats.reconcileIntervalMs}", initialDelayString = "${user.stats.reconcileIntervalMs}")
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            userStatsRepository.rebuild();
+            generation.incrementAndGet();
+            load();
+            log.info("Reconciled user stats in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @param users users just inserted
+     */
+    public void recordCreated(Collection<User> users) {
+        List<DailyStats> deltas = new ArrayList<>(users.size());
+        for (User user : users) {
+            deltas.add(delta(user.getRole().getRoleId(), user.getCreatedAt(), 1, user.isActive()));
+        }
+        apply(deltas);
+    }
+
+    /**
+     *
+     * @param user      the user as saved
+     * @param oldRoleId role before the change
+     * @param wasActive active flag before the change
+     */
+    public void recordUpdated(User user, Integer oldRoleId, boolean wasActive) {
+        Integer roleId = user.getRole().getRoleId();
+        if (roleId.equals(oldRoleId) && user.isActive() == wasActive) {
+            return;
+        }
+        apply(List.of(delta(oldRoleId, user.getCreatedAt(), -1, wasActive), delta(roleId, user.getCreatedAt(), 1, user.isActive())));
+    }
+
+    /**
+     * Moves users changed by one set-based update to their new role and active flag.
+     *
+     * @param changed counts of the changed users by their previous role and sign-up day, read before the update
+     * @param roleId  role they were given, or null if it was kept
+     * @param active  active flag they were given, or null if it was kept
+     */
+    public void recordBulkUpdated(List<DailyStats> changed, Integer roleId, Boolean active) {
+        List<DailyStats> deltas = new ArrayList<>(changed.size() * 2);
+        for (DailyStats row : changed) {
+            long activeUsers = active == null ? row.activeUsers() : active ? row.users() : 0;
+            deltas.add(new DailyStats(row.roleId(), row.signupDate(), -row.users(), -row.activeUsers()));
+            deltas.add(new DailyStats(roleId != null ? roleId : row.roleId(), row.signupDate(), row.users(), activeUsers));
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Counts of the given users, read before they are deleted and then passed to {@link #recordRemoved}.
+     *
+     * @param userIds users about to be removed
+     * @return counts per role and sign-up day
+     */
+    public List<DailyStats> countsOf(Collection<Integer> userIds) {
+        return userStatsRepository.sumByUserIds(userIds);
+    }
+
+    /**
+     *
+     * @param removed     counts of the removed users from {@link #countsOf}
+     * @param deactivated true if the users were only made inactive
+     */
+    public void recordRemoved(List<DailyStats> removed, boolean deactivated) {
+        apply(removed.stream()
+                .map(row -> new DailyStats(row.roleId(), row.signupDate(), deactivated ? 0 : -row.users(), -row.activeUsers()))
+                .toList());
+    }
+
+    /**
+     *
+     * @param from first sign-up day, or null for no lower bound
+     * @param to   last sign-up day, or null for no upper bound
+     * @return totals, per-role counts for every known role and sign-ups per day
+     */
+    public UserStatsSummaryDTO getSummary(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Map<Integer, Counts> byRole = new HashMap<>();
+        TreeMap<LocalDate, Long> byDay = new TreeMap<>();
+        Counts total = Counts.ZERO;
+        for (Map.Entry<Key, Counts> entry : counters.entrySet()) {
+            LocalDate day = entry.getKey().signupDate();
+            if ((from != null && day.isBefore(from)) || (to != null && day.isAfter(to))) {
+                continue;
+            }
+            Counts counts = entry.getValue();
+            total = total.plus(counts);
+            byRole.merge(entry.getKey().roleId(), counts, Counts::plus);
+            if (counts.users() != 0) {
+                byDay.merge(day, counts.users(), Long::sum);
+            }
+        }
+
+        List<RoleUserStatsDTO> roles = new ArrayList<>();
+        for (Role role : roleRegistry.getAll()) {
+            Counts counts = byRole.getOrDefault(role.getRoleId(), Counts.ZERO);
+            roles.add(new RoleUserStatsDTO(role.getRoleId(), role.getRoleName(), counts.users(), counts.activeUsers()));
+        }
+        List<DailySignupsDTO> signups = new ArrayList<>(byDay.size());
+        byDay.forEach((day, users) -> signups.add(new DailySignupsDTO(day, users)));
+        return new UserStatsSummaryDTO(from, to, total.users(), total.activeUsers(), total.users() - total.activeUsers(), roles, signups);
+    }
+
+    private void apply(List<DailyStats> deltas) {
+        Map<Key, Counts> merged = new HashMap<>();
+        for (DailyStats delta : deltas) {
+            merged.merge(new Key(delta.roleId(), delta.signupDate()), new Counts(delta.users(), delta.activeUsers()), Counts::plus);
+        }
+        merged.values().removeIf(counts -> counts.equals(Counts.ZERO));
+        if (merged.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> write(merged, generation.get()));
+    }
+
+    private void write(Map<Key, Counts> merged, long committedAt) {
+        lock.readLock().lock();
+        try {
+            if (generation.get() != committedAt) {
+                log.debug("Dropped user stats delta, counted by the rebuild that committed after it");
+                return;
+            }
+            userStatsRepository.add(merged.entrySet().stream()
+                    .map(entry -> new DailyStats(entry.getKey().roleId(), entry.getKey().signupDate(), entry.getValue().users(), entry.getValue().activeUsers()))
+                    .toList());
+            merged.forEach((key, counts) -> counters.merge(key, counts, Counts::plus));
+        } catch (RuntimeException e) {
+            // The user change itself stands; the next reconciliation puts the counts right
+            log.warn("Could not update user stats, {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only committed changes are counted, and the rollup rows are not locked for the rest of the user's transaction
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static DailyStats delta(Integer roleId, LocalDateTime createdAt, int users, boolean active) {
+        return new DailyStats(roleId, createdAt.toLocalDate(), users, active ? users : 0);
+    }
+
+    private record Key(int roleId, LocalDate signupDate) {
+    }
+
+    private record Counts(long users, long activeUsers) {
+
+        static final Counts ZERO = new Counts(0, 0);
+
+        Counts plus(Counts other) {
+            return new Counts(users + other.users, activeUsers + other.activeUsers);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.ibs.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibs.userservice.dtos.requestDtos.UserBulkUpdateDTO;
+import com.ibs.userservice.dtos.requestDtos.UserPatchDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserUpdateResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.mapper.UserMapper;
+import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.repository.UserStatsRepository.DailyStats;
+import com.ibs.userservice.repository.UserUpdateRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Partial and set-based updates. A patch loads the user once and writes only the columns it changes; a bulk
+ * update applies one change to many users in a single UPDATE without loading them.
+ */
+@Service
+@Slf4j
+public class UserUpdateService {
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("userName", "email", "userPhone", "password", "fullName", "active", "roleId");
+    private static final Set<String> NULLABLE_FIELDS = Set.of("fullName");
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserUpdateRepository userUpdateRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxIds;
+
+    public UserUpdateService(UserRepository userRepository,
+                             RoleRegistry roleRegistry,
+                             UserUpdateRepository userUpdateRepository,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             UserStatsService userStatsService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${user.bulk.maxRows}") int maxIds) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.userUpdateRepository = userUpdateRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Applies a JSON merge patch (RFC 7396): fields that are absent stay as they are, and null clears a field
+     * where the column allows it. A new password is hashed before the transaction starts, and the change is
+     * announced only once it has committed.
+     *
+     * @param id    userid
+     * @param patch fields to change
+     * @return UserResponseDTO
+     */
+    public UserResponseDTO patchUser(Integer id, Map<String, Object> patch) {
+        UserPatchDTO dto = toPatchDTO(patch);
+        try {
+            log.info("Entering into patchUser, {} fields {}", id, patch.keySet());
+            // BCrypt takes a good fraction of a second, which is not spent holding a connection and the user row
+            String passwordHash = patch.containsKey("password") ? passwordEncoder.encode(dto.getPassword()) : null;
+
+            User updatedUser = transactionTemplate.execute(status -> {
+                User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
+                Integer oldRoleId = user.getRole().getRoleId();
+                boolean wasActive = user.isActive();
+
+                if (patch.containsKey("userName")) {
+                    user.setUserName(dto.getUserName());
+                }
+                if (patch.containsKey("email")) {
+                    user.setEmail(dto.getEmail());
+                }
+                if (patch.containsKey("userPhone")) {
+                    user.setUserPhone(dto.getUserPhone());
+                }
+                if (patch.containsKey("fullName")) {
+                    user.setFullName(dto.getFullName());
+                }
+                if (patch.containsKey("active")) {
+                    user.setActive(dto.getActive());
+                }
+                if (patch.containsKey("roleId") && !Objects.equals(user.getRole().getRoleId(), dto.getRoleId())) {
+                    user.setRole(roleRegistry.getById(dto.getRoleId()));
+                }
+                if (passwordHash != null) {
+                    user.setPasswordHash(passwordHash);
+                }
+
+                // User has dynamic updates, so the flush writes only the columns set above
+                User saved = userRepository.save(user);
+                userStatsService.recordUpdated(saved, oldRoleId, wasActive);
+                return saved;
+            });
+            boolean deactivated = patch.containsKey("active") && Boolean.FALSE.equals(dto.getActive());
+            eventPublisher.publishEvent(deactivated ? UserChangedEvent.deactivated(id) : UserChangedEvent.updated(id));
+            log.info("Exit from patchUser");
+            return UserMapper.toResponseDTO(updatedUser);
+        } catch (RuntimeException e) {
+            log.error("Exception occurred in patchUser, {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     *
+     * @param dto the change and the users it applies to
+     * @return number of users changed
+     */
+    public BulkUserUpdateResponseDTO updateUsers(UserBulkUpdateDTO dto) {
+        validate(dto);
+        try {
+            log.info("Entering into updateUsers, {}", dto);
+            if (dto.getRoleId() != null && roleRegistry.findById(dto.getRoleId()).isEmpty()) {
+                throw new RuntimeException("Role not found");
+            }
+            // Previous role and active flag of the users about to change, grouped the way the stats count them
+            List<DailyStats> changed = userUpdateRepository.sumChanged(dto.getIds(), dto.getFilter(), dto.getRoleId(), dto.getActive());
+            // Users about to be made inactive, whose tokens are revoked
+            List<Integer> deactivatedIds = Boolean.FALSE.equals(dto.getActive())
+                    ? userUpdateRepository.findChangedIds(dto.getIds(), dto.getFilter(), dto.getRoleId(), dto.getActive())
+                    : List.of();
+            int updated = userUpdateRepository.updateAll(dto.getIds(), dto.getFilter(), dto.getRoleId(), dto.getActive());
+            if (updated > 0) {
+                long counted = changed.stream().mapToLong(DailyStats::users).sum();
+                if (counted != updated) {
+                    // Users changed between the two statements; the counts are close and reconciliation fixes the rest
+                    log.info("Bulk update changed {} users, {} counted beforehand", updated, counted);
+                }
+                userStatsService.recordBulkUpdated(changed, dto.getRoleId(), dto.getActive());
+                // Users matched by a filter are not known individually, so caches drop everything
+                Set<Integer> userIds = dto.getIds() != null ? Set.copyOf(dto.getIds()) : Set.of();
+                eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.UPDATED, userIds));
+                if (!deactivatedIds.isEmpty()) {
+                    eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.DEACTIVATED, Set.copyOf(deactivatedIds)));
+                }
+            }
+            log.info("Exit from updateUsers, updated {}", updated);
+            return new BulkUserUpdateResponseDTO(updated);
+        } catch (RuntimeException e) {
+            log.error("Exception occurred in updateUsers, {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private UserPatchDTO toPatchDTO(Map<String, Object> patch) {
+        if (patch == null || patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch must contain at least one field");
+        }
+        Set<String> unknown = new TreeSet<>(patch.keySet());
+        unknown.removeAll(PATCHABLE_FIELDS);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fields: " + String.join(", ", unknown));
+        }
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            if (entry.getValue() == null && !NULLABLE_FIELDS.contains(entry.getKey())) {
+                throw new IllegalArgumentException(entry.getKey() + " cannot be null");
+            }
+        }
+
+        UserPatchDTO dto = objectMapper.convertValue(patch, UserPatchDTO.class);
+        Set<ConstraintViolation<UserPatchDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return dto;
+    }
+
+    private void validate(UserBulkUpdateDTO dto) {
+        if (dto.getRoleId() == null && dto.getActive() == null) {
+            throw new IllegalArgumentException("Nothing to update, set roleId or active");
+        }
+        if ((dto.getIds() == null) == (dto.getFilter() == null)) {
+            throw new IllegalArgumentException("Either ids or filter is required, but not both");
+        }
+        if (dto.getIds() != null) {
+            if (dto.getIds().isEmpty() || dto.getIds().stream().anyMatch(Objects::isNull)) {
+                throw new IllegalArgumentException("ids must not be empty or contain null");
+            }
+            if (dto.getIds().size() > maxIds) {
+                throw new IllegalArgumentException("At most " + maxIds + " users can be updated by id per request");
+            }
+        } else if (dto.getFilter().isEmpty()) {
+            throw new IllegalArgumentException("filter must have at least one criterion");
+        }
+    }
+}
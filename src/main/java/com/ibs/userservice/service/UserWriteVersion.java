@@ -0,0 +1,33 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.event.UserChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the users table, moved forward on every user change. Results cached together with the version
+ * they were read at are outdated as soon as it moves on, so nothing has to be looked up or dropped on a write.
+ */
+@Component
+public class UserWriteVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Bumps the version once the change has committed, so results read while it was still uncommitted are
+     * left under the previous version and not served afterwards.
+     *
+     * @param event the user change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,30 @@
+-- Users and roles as created by spring.jpa.hibernate.ddl-auto=update before the schema moved to Flyway. Constraint
+-- names are the ones Hibernate generated, so databases created that way are baselined at this version and continue
+-- from V2. Tables added since then belong in later versions, which baselined databases still run.
+
+create table roles (
+    role_id integer not null auto_increment,
+    role_name varchar(255) not null,
+    primary key (role_id)
+) engine=InnoDB;
+
+create table users (
+    user_id integer not null auto_increment,
+    user_name varchar(255) not null,
+    user_phone varchar(255) not null,
+    email varchar(255) not null,
+    password_hash varchar(255) not null,
+    full_name varchar(255),
+    active bit not null,
+    role_id integer not null,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    primary key (user_id)
+) engine=InnoDB;
+
+alter table roles add constraint UK716hgxp60ym1lifrdgp67xt5k unique (role_name);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table users add constraint UKk8d0f2n7n88w1a16yhua64onx unique (user_name);
+alter table users add constraint UK57oqbaqjqynlu1guvvc1ihudy unique (user_phone);
+
+alter table users add constraint FKp56c1712k691lhsyewcssf40f foreign key (role_id) references roles (role_id);
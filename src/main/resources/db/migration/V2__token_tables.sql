@@ -0,0 +1,36 @@
+-- Refresh tokens, revoked access tokens and JWT signing keys. Databases that ran with ddl-auto=update after these
+-- entities were added already have the tables, with the same names and constraints, so they are left as they are.
+
+create table if not exists refresh_tokens (
+    id bigint not null auto_increment,
+    token_hash varchar(64) not null,
+    user_id integer not null,
+    expires_at datetime(6) not null,
+    revoked bit not null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint UKo2mlirhldriil2y7krapq4frt unique (token_hash),
+    index idx_refresh_tokens_user (user_id),
+    constraint FK1lih5y2npsf8u5o3vhdb9y0os foreign key (user_id) references users (user_id) on delete cascade
+) engine=InnoDB;
+
+create table if not exists revoked_tokens (
+    id bigint not null auto_increment,
+    token_id varchar(64),
+    user_id integer,
+    revoked_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    primary key (id),
+    index idx_revoked_tokens_expires (expires_at)
+) engine=InnoDB;
+
+create table if not exists signing_keys (
+    id bigint not null auto_increment,
+    kid varchar(64) not null,
+    public_key varchar(512) not null,
+    private_key varchar(512) not null,
+    created_at datetime(6) not null,
+    activates_at datetime(6) not null,
+    primary key (id),
+    constraint UKtobs6m52hleh04iy0qgpb2yfv unique (kid)
+) engine=InnoDB;
@@ -0,0 +1,10 @@
+-- Report filter: the role, then a created_at range, read in created_at order.
+create index idx_users_role_created on users (role_id, created_at);
+
+-- Report sorted by name or email within a role, read in index order instead of sorting the role's users.
+create index idx_users_role_full_name on users (role_id, full_name);
+create index idx_users_role_email on users (role_id, email);
+
+-- Role listings and keyset pages in user_id order. MySQL drops the index it created for the role foreign key
+-- once another index starts with role_id, so this one is declared explicitly.
+create index idx_users_role_user on users (role_id, user_id);
@@ -0,0 +1,13 @@
+-- Users per role and sign-up day, kept up to date as users change and rebuilt periodically from users.
+create table user_daily_stats (
+    role_id integer not null,
+    signup_date date not null,
+    users bigint not null,
+    active_users bigint not null,
+    primary key (role_id, signup_date)
+) engine=InnoDB;
+
+insert into user_daily_stats (role_id, signup_date, users, active_users)
+select role_id, cast(created_at as date), count(*), sum(case when active then 1 else 0 end)
+from users
+group by role_id, cast(created_at as date);
@@ -0,0 +1,63 @@
+package com.ibs.userservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HibernateCacheConfigTest {
+
+    private final HibernateCacheConfig config = new HibernateCacheConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = config.hibernateCacheManager(2, 600, 10, 100, 300, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void hibernateCacheManager_shouldCreateEveryRegionWithMetrics() {
+        for (String region : new String[]{HibernateCacheConfig.USERS_REGION, HibernateCacheConfig.ROLES_REGION,
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME}) {
+            assertNotNull(cacheManager.getCache(region), region);
+            assertNotNull(meterRegistry.find("cache.gets").tag("cache", region).tag("result", "hit").functionCounter(), region);
+        }
+    }
+
+    @Test
+    void usersRegion_shouldCountHitsMissesAndPuts() {
+        Cache<Object, Object> users = cacheManager.getCache(HibernateCacheConfig.USERS_REGION);
+        users.put(1, "john");
+        users.get(1);
+        users.get(2);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.puts").tag("cache", "users").functionCounter().count());
+    }
+
+    @Test
+    void secondLevelCacheCustomizer_shouldUseJCacheWithTheConfiguredManager() {
+        Map<String, Object> properties = new HashMap<>();
+        config.secondLevelCacheCustomizer(cacheManager).customize(properties);
+
+        assertEquals(ConfigSettings.SIMPLE_FACTORY_NAME, properties.get(AvailableSettings.CACHE_REGION_FACTORY));
+        assertSame(cacheManager, properties.get(ConfigSettings.CACHE_MANAGER));
+    }
+}
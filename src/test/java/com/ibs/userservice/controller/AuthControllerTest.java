@@ -1,23 +1,38 @@
 package com.ibs.userservice.controller;
 
 import com.ibs.userservice.dtos.requestDtos.AuthRequest;
+import com.ibs.userservice.dtos.requestDtos.RefreshTokenRequest;
 import com.ibs.userservice.dtos.responseDtos.AuthResponse;
+import com.ibs.userservice.entity.Role;
 import com.ibs.userservice.entity.User; // adjust import if your User class is elsewhere
 import com.ibs.userservice.security.AppUserDetails;
+import com.ibs.userservice.exception.ThrottledException;
 import com.ibs.userservice.security.JwtUtil;
+import com.ibs.userservice.security.LoginAttemptService;
+import com.ibs.userservice.security.LoginRateLimiter;
+import com.ibs.userservice.security.TokenRevocationService;
+import com.ibs.userservice.service.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +46,18 @@ class AuthControllerTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
     @Mock
     private Authentication authentication;
 
@@ -69,9 +96,10 @@ class AuthControllerTest {
 
         // Mock JWT token generation
         when(jwtUtil.generateToken(any(UserDetails.class))).thenReturn("fake-jwt-token");
+        when(refreshTokenService.issue(userEntity)).thenReturn("fake-refresh-token");
 
         // Act
-        ResponseEntity<AuthResponse> response = authController.login(request);
+        ResponseEntity<AuthResponse> response = authController.login(request, new MockHttpServletRequest());
 
         // Assert
         assertNotNull(response);
@@ -82,9 +110,48 @@ class AuthControllerTest {
         assertEquals(1001, response.getBody().getUserId());
         assertEquals("testUser", response.getBody().getUserName());
         assertEquals("Test User", response.getBody().getUserFullName());
+        assertEquals("fake-refresh-token", response.getBody().getRefreshToken());
 
         verify(authenticationManager, times(1)).authenticate(any());
         verify(jwtUtil, times(1)).generateToken(any());
+        verify(loginAttemptService).loginSucceeded("testUser");
+    }
+
+    @Test
+    void login_shouldRejectBeforeAuthenticating_whenRateLimited() {
+        AuthRequest request = new AuthRequest("testUser", "testPass");
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("10.0.0.1");
+        doThrow(new ThrottledException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts", 6))
+                .when(loginRateLimiter).acquire("testUser", "10.0.0.1");
+
+        ThrottledException ex = assertThrows(ThrottledException.class, () -> authController.login(request, httpRequest));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void login_shouldRejectBlankUsername_beforeRateLimitingOrAuthenticating() {
+        AuthRequest blank = new AuthRequest(" ", "testPass");
+        AuthRequest missing = new AuthRequest(null, "testPass");
+
+        assertThrows(IllegalArgumentException.class, () -> authController.login(blank, new MockHttpServletRequest()));
+        assertThrows(IllegalArgumentException.class, () -> authController.login(missing, new MockHttpServletRequest()));
+
+        verifyNoInteractions(loginRateLimiter, authenticationManager, loginAttemptService);
+    }
+
+    @Test
+    void login_shouldRecordFailure_whenPasswordIsWrong() {
+        AuthRequest request = new AuthRequest("testUser", "wrong");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(RuntimeException.class, () -> authController.login(request, new MockHttpServletRequest()));
+
+        verify(loginAttemptService).loginFailed("testUser");
+        verify(loginAttemptService, never()).loginSucceeded(any());
     }
 
     @Test
@@ -95,7 +162,61 @@ class AuthControllerTest {
                 .thenThrow(new RuntimeException("Invalid credentials"));
 
         // Act & Assert
-        RuntimeException ex = assertThrows(RuntimeException.class, () -> authController.login(request));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> authController.login(request, new MockHttpServletRequest()));
         assertTrue(ex.getMessage().contains("Invalid credentials"));
     }
+
+    @Test
+    void refresh_shouldIssueNewTokensWithoutAuthenticating() {
+        Role role = new Role();
+        role.setRoleName("HR");
+        User userEntity = new User();
+        userEntity.setUserId(7);
+        userEntity.setUserName("hrUser");
+        userEntity.setFullName("HR User");
+        userEntity.setRole(role);
+
+        when(refreshTokenService.rotate("old-refresh"))
+                .thenReturn(new RefreshTokenService.Rotation(userEntity, "new-refresh"));
+        when(jwtUtil.generateToken(any(UserDetails.class))).thenReturn("new-jwt-token");
+
+        ResponseEntity<AuthResponse> response = authController.refresh(new RefreshTokenRequest("old-refresh"));
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("new-jwt-token", response.getBody().getToken());
+        assertEquals("new-refresh", response.getBody().getRefreshToken());
+        assertEquals("HR", response.getBody().getRole());
+        assertEquals(7, response.getBody().getUserId());
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void refresh_shouldPropagateInvalidToken() {
+        when(refreshTokenService.rotate("bad")).thenThrow(new BadCredentialsException("Invalid refresh token"));
+
+        assertThrows(BadCredentialsException.class, () -> authController.refresh(new RefreshTokenRequest("bad")));
+    }
+
+    @Test
+    void logout_shouldRevokeAccessAndRefreshToken() {
+        Claims claims = Jwts.claims();
+        claims.setId("jti-1");
+        claims.setExpiration(Date.from(Instant.now().plusSeconds(600)));
+        when(jwtUtil.parseClaims("access-token")).thenReturn(Optional.of(claims));
+
+        ResponseEntity<String> response = authController.logout("Bearer access-token", new RefreshTokenRequest("refresh"));
+
+        assertEquals(200, response.getStatusCodeValue());
+        verify(tokenRevocationService).revokeToken("jti-1", claims.getExpiration().toInstant());
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    @Test
+    void logout_shouldIgnoreInvalidAccessToken() {
+        when(jwtUtil.parseClaims("garbage")).thenReturn(Optional.empty());
+
+        authController.logout("Bearer garbage", null);
+
+        verifyNoInteractions(tokenRevocationService, refreshTokenService);
+    }
 }
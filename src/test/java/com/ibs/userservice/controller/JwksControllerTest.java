@@ -0,0 +1,26 @@
+package com.ibs.userservice.controller;
+
+import com.ibs.userservice.security.JwtKeyManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwksControllerTest {
+
+    @Test
+    void jwks_shouldReturnPrebuiltDocumentWithCacheHeaders() {
+        JwtKeyManager keyManager = mock(JwtKeyManager.class);
+        when(keyManager.jwksJson()).thenReturn("{\"keys\":[]}");
+        JwksController controller = new JwksController(keyManager, 300);
+
+        ResponseEntity<String> response = controller.jwks();
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("{\"keys\":[]}", response.getBody());
+        assertEquals("max-age=300, public", response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+    }
+}
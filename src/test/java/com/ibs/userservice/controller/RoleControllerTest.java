@@ -51,4 +51,17 @@ class RoleControllerTest {
         assertEquals(mockRoles, response.getBody());
         verify(roleService, times(1)).getAllRoles();
     }
+
+    @Test
+    void refreshRoles_shouldReturnReloadedRoles() {
+        Role role = new Role();
+        role.setRoleId(1);
+        role.setRoleName("ADMIN");
+        when(roleService.refreshRoles()).thenReturn(List.of(role));
+
+        ResponseEntity<List<Role>> response = roleController.refreshRoles();
+
+        assertEquals(List.of(role), response.getBody());
+        verify(roleService).refreshRoles();
+    }
 }
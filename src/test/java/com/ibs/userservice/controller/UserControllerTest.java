@@ -1,19 +1,39 @@
 package com.ibs.userservice.controller;
 
+import com.ibs.userservice.dtos.requestDtos.UserBulkUpdateDTO;
 import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserDeleteResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserUpdateResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.ImportJobStatusDTO;
 import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.UserScrollResponseDTO;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.enums.ExportFormat;
+import com.ibs.userservice.enums.ImportJobStatus;
+import com.ibs.userservice.service.UserBulkService;
+import com.ibs.userservice.service.UserExportService;
+import com.ibs.userservice.service.UserImportService;
+import com.ibs.userservice.service.UserScrollService;
 import com.ibs.userservice.service.UserService;
+import com.ibs.userservice.service.UserUpdateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.*;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +43,21 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserBulkService userBulkService;
+
+    @Mock
+    private UserImportService userImportService;
+
+    @Mock
+    private UserUpdateService userUpdateService;
+
+    @Mock
+    private UserScrollService userScrollService;
+
+    @Mock
+    private UserExportService userExportService;
+
     @InjectMocks
     private UserController userController;
 
@@ -63,12 +98,23 @@ class UserControllerTest {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("userId").ascending());
         Page<UserResponseDTO> page = new PageImpl<>(Arrays.asList(dto1, dto2));
 
-        when(userService.getAllUsers(pageable)).thenReturn(page);
+        when(userService.getAllUsers(pageable, CountMode.EXACT)).thenReturn(page);
+
+        Slice<UserResponseDTO> result = userController.getAllUsers(0, 10, CountMode.EXACT);
+
+        assertEquals(page, result);
+        verify(userService, times(1)).getAllUsers(pageable, CountMode.EXACT);
+    }
+
+    @Test
+    void scrollUsers_shouldReturnSliceWithCursor() {
+        UserScrollResponseDTO slice = new UserScrollResponseDTO(List.of(UserResponseDTO.builder().userId(1).build()), 1, true, "dTox");
+        when(userScrollService.getUsers("abc", 1)).thenReturn(slice);
 
-        Page<UserResponseDTO> result = userController.getAllUsers(0, 10);
+        ResponseEntity<UserScrollResponseDTO> response = userController.scrollUsers("abc", 1);
 
-        assertEquals(2, result.getTotalElements());
-        verify(userService, times(1)).getAllUsers(pageable);
+        assertEquals(slice, response.getBody());
+        verify(userService, never()).getAllUsers(any(), any());
     }
 
     @Test
@@ -115,6 +161,15 @@ class UserControllerTest {
         verify(userService).deleteUser(1);
     }
 
+    @Test
+    void deleteUsers_shouldReturnDeletedCount() {
+        when(userService.deleteUsers(List.of(1, 2))).thenReturn(new BulkUserDeleteResponseDTO(2, 1));
+
+        ResponseEntity<BulkUserDeleteResponseDTO> response = userController.deleteUsers(List.of(1, 2));
+
+        assertEquals(1, response.getBody().getDeleted());
+    }
+
     @Test
     void getUsersByRole_shouldReturnPagedResponse() {
         Page<UserResponseDTO> mockPage = new PageImpl<>(List.of(
@@ -124,13 +179,13 @@ class UserControllerTest {
                         .roleName("ADMIN")
                         .email("Updated@example.com").build()
         ));
-        when(userService.getUsersByRole("HR", 0, 10)).thenReturn(mockPage);
+        when(userService.getUsersByRole("HR", 0, 10, CountMode.CACHED)).thenReturn(mockPage);
 
-        ResponseEntity<Page<UserResponseDTO>> response = userController.getUsersByRole("HR", 0, 10);
+        ResponseEntity<Slice<UserResponseDTO>> response = userController.getUsersByRole("HR", 0, 10, CountMode.CACHED);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(mockPage, response.getBody());
-        verify(userService).getUsersByRole("HR", 0, 10);
+        verify(userService).getUsersByRole("HR", 0, 10, CountMode.CACHED);
     }
 
     @Test
@@ -173,21 +228,25 @@ class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_shouldReturnList() {
-        List<UserResponseDTO> list = List.of(
-                UserResponseDTO.builder()
-                        .userId(1)
-                        .fullName("John")
-                        .roleName("HR")
-                        .email("john@example.com").build()
-        );
-        when(userService.getAllUsers()).thenReturn(list);
+    void getAllUsers_shouldStreamJsonArray() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = userController.getAllUsers();
+        response.getBody().writeTo(new ByteArrayOutputStream());
 
-        ResponseEntity<List<UserResponseDTO>> response = userController.getAllUsers();
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertNull(response.getHeaders().getContentDisposition().getFilename());
+        verify(userExportService).export(eq(ExportFormat.JSON), any());
+    }
 
-        assertEquals(200, response.getStatusCodeValue());
-        assertEquals(list, response.getBody());
-        verify(userService).getAllUsers();
+    @Test
+    void exportUsers_shouldStreamAttachmentInRequestedFormat() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = userController.exportUsers(ExportFormat.CSV);
+
+        verifyNoInteractions(userExportService);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+        assertEquals("users.csv", response.getHeaders().getContentDisposition().getFilename());
+        verify(userExportService).export(eq(ExportFormat.CSV), any());
     }
 
     @Test
@@ -207,4 +266,62 @@ class UserControllerTest {
         assertEquals(list, response.getBody());
         verify(userService).getPendingPanelists();
     }
+
+    @Test
+    void createUsers_shouldDelegateToBulkService() {
+        List<UserRequestDTO> requests = List.of(new UserRequestDTO(), new UserRequestDTO());
+        BulkUserResponseDTO bulkResponse = new BulkUserResponseDTO(2, 2, 0, List.of());
+        when(userBulkService.createUsers(requests)).thenReturn(bulkResponse);
+
+        ResponseEntity<BulkUserResponseDTO> response = userController.createUsers(requests);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(bulkResponse, response.getBody());
+    }
+
+    @Test
+    void importUsers_shouldReturnAcceptedWithStatusLocation() {
+        MockMultipartFile file = new MockMultipartFile("file", "users.csv", "text/csv", "userName,email,roleId\n".getBytes());
+        ImportJobStatusDTO status = ImportJobStatusDTO.builder().jobId("job-1").status(ImportJobStatus.QUEUED).build();
+        when(userImportService.startImport(file)).thenReturn(status);
+
+        ResponseEntity<ImportJobStatusDTO> response = userController.importUsers(file);
+
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals("/api/v1/users/import/job-1", response.getHeaders().getLocation().toString());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void getImportStatus_shouldReturnNotFoundForUnknownJob() {
+        when(userImportService.getStatus("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<ImportJobStatusDTO> response = userController.getImportStatus("missing");
+
+        assertEquals(404, response.getStatusCode().value());
+    }
+
+    @Test
+    void patchUser_shouldDelegateToUpdateService() {
+        Map<String, Object> patch = Map.of("active", false);
+        UserResponseDTO responseDTO = UserResponseDTO.builder().userId(1).active(false).build();
+        when(userUpdateService.patchUser(1, patch)).thenReturn(responseDTO);
+
+        ResponseEntity<UserResponseDTO> response = userController.patchUser(1, patch);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(responseDTO, response.getBody());
+    }
+
+    @Test
+    void updateUsers_shouldReturnUpdatedCount() {
+        UserBulkUpdateDTO request = new UserBulkUpdateDTO();
+        request.setIds(List.of(1, 2));
+        request.setActive(true);
+        when(userUpdateService.updateUsers(request)).thenReturn(new BulkUserUpdateResponseDTO(2));
+
+        ResponseEntity<BulkUserUpdateResponseDTO> response = userController.updateUsers(request);
+
+        assertEquals(2, response.getBody().getUpdated());
+    }
 }
@@ -0,0 +1,79 @@
+package com.ibs.userservice.controller;
+
+import com.ibs.userservice.exception.GlobalExceptionHandler;
+import com.ibs.userservice.repository.UserReportRepository;
+import com.ibs.userservice.service.RoleRegistry;
+import com.ibs.userservice.service.UserCountCache;
+import com.ibs.userservice.service.UserReportCache;
+import com.ibs.userservice.service.UserReportExportService;
+import com.ibs.userservice.service.UserReportJsonWriter;
+import com.ibs.userservice.service.UserReportService;
+import com.ibs.userservice.service.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs report requests through MVC and the exception handler, to check the status a bad request gets.
+ */
+class UserReportControllerTest {
+
+    @Mock
+    private UserReportRepository userReportRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private UserCountCache userCountCache;
+
+    @Mock
+    private UserReportCache userReportCache;
+
+    @Mock
+    private UserReportExportService userReportExportService;
+
+    @Mock
+    private UserReportJsonWriter userReportJsonWriter;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        UserReportService userReportService = new UserReportService(userReportRepository, roleRegistry, userCountCache, userReportCache);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new UserReportController(userReportService, userReportExportService, userReportJsonWriter, userStatsService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getUserReport_shouldAnswer400ForUnknownSortField() throws Exception {
+        mockMvc.perform(get("/api/v1/users/report").param("role", "HR").param("sortField", "passwordHash"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Report cannot be sorted by passwordHash, use one of createdAt, email, fullName, userId"));
+
+        verifyNoInteractions(roleRegistry, userReportCache, userReportRepository);
+    }
+
+    @Test
+    void getUserReport_shouldAnswer400ForUnknownSortDirection() throws Exception {
+        mockMvc.perform(get("/api/v1/users/report").param("role", "HR").param("sortField", "email").param("sortDir", "sideways"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid sort direction, sideways"));
+
+        verifyNoInteractions(roleRegistry, userReportCache, userReportRepository);
+    }
+}
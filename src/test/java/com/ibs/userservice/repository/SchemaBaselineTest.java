@@ -0,0 +1,57 @@
+package com.ibs.userservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts on a database that already has the users and roles tables but no Flyway history, as deployed databases do.
+ * It is baselined at V1, every later migration has to bring it up to the schema the entities are validated against.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                + "INIT=RUNSCRIPT FROM 'classpath:db/legacy/roles_users.sql'",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaBaselineTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void existingSchema_shouldBeBaselinedAndMigrated() {
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+                "SELECT \"version\", \"type\", \"success\" FROM userservice_schema_history WHERE \"version\" IS NOT NULL ORDER BY \"installed_rank\"");
+
+        assertEquals(List.of("1", "2", "3", "4"), history.stream().map(row -> row.get("version")).toList());
+        assertEquals("BASELINE", history.getFirst().get("type"));
+        assertTrue(history.stream().allMatch(row -> Boolean.TRUE.equals(row.get("success"))));
+    }
+
+    @Test
+    void existingSchema_shouldGetTablesAddedSinceBaseline() {
+        for (String table : List.of("refresh_tokens", "revoked_tokens", "signing_keys", "user_daily_stats")) {
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE 1 = 0", Long.class), table);
+        }
+        assertEquals(Map.of("users", 2L, "active_users", 1L),
+                jdbcTemplate.queryForMap("SELECT users, active_users FROM user_daily_stats WHERE role_id = 1"));
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackages = "com.ibs.userservice")
+    static class Config {
+    }
+}
@@ -0,0 +1,181 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the report queries against the migrated schema on H2 and checks the plan of the SQL they generate. Entity
+ * mappings are validated against the migrations when the context starts.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userreport;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ibs.userservice.repository.UserReportRepositoryTest$SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserReportRepository.class)
+class UserReportRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private UserReportRepository userReportRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Role admin;
+
+    private Role hr;
+
+    @BeforeEach
+    void setUp() {
+        admin = entityManager.persist(new Role(null, "ADMIN", null));
+        hr = entityManager.persist(new Role(null, "HR", null));
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(user(i, i % 3 == 0 ? admin : hr));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    void findRows_shouldFilterOnlyByGivenBoundsAndCountWhenNeeded() {
+        Page<UserReportRow> page = userReportRepository.findRows(hr, START.plusDays(5), null,
+                PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertEquals(17, page.getTotalElements());
+        assertEquals(List.of("user29@example.com", "user28@example.com", "user26@example.com", "user25@example.com"), emails(page));
+        assertEquals("HR", page.getContent().getFirst().getRole());
+
+        String sql = SqlCapture.STATEMENTS.getFirst();
+        assertFalse(sql.contains(" is null"), sql);
+        assertFalse(sql.contains("join"), sql);
+        assertEquals(1, count(sql, "created_at>=") + count(sql, "created_at >="), sql);
+        assertEquals(0, count(sql, "created_at<=") + count(sql, "created_at <="), sql);
+    }
+
+    @Test
+    void findRowSlice_shouldReadOnePastThePage() {
+        Slice<UserReportRow> slice = userReportRepository.findRowSlice(admin, null, null, PageRequest.of(1, 4));
+
+        assertEquals(List.of("user12@example.com", "user15@example.com", "user18@example.com", "user21@example.com"), emails(slice));
+        assertTrue(slice.hasNext());
+    }
+
+    @Test
+    void findIdRange_shouldSpanMatchingUsers() {
+        UserReportRepository.IdRange range = userReportRepository.findIdRange(admin, START.plusDays(3), START.plusDays(20));
+
+        // Users 3, 6, ..., 18, persisted in order
+        assertEquals(6, range.count());
+        assertEquals(15, range.maxId() - range.minId());
+    }
+
+    @Test
+    void findRows_shouldRejectSortWithoutIndex() {
+        assertThrows(IllegalArgumentException.class, () ->
+                userReportRepository.findRows(hr, null, null, PageRequest.of(0, 4, Sort.by("userPhone"))));
+    }
+
+    @Test
+    void dateRangeQueries_shouldUseRoleCreatedIndex() {
+        userReportRepository.findRows(hr, START, START.plusDays(10), PageRequest.of(0, 5, Sort.by("createdAt")));
+        userReportRepository.count(hr, START, null);
+        userReportRepository.findIdRange(hr, null, START.plusDays(10));
+
+        for (String sql : SqlCapture.STATEMENTS) {
+            assertTrue(explain(sql).contains("idx_users_role_created"), () -> sql + "\n" + explain(sql));
+        }
+    }
+
+    // H2 does not weigh ORDER BY when it picks an index, so this only checks that sorted pages seek on role_id;
+    // MySQL reads them in order from idx_users_role_full_name and idx_users_role_email
+    @Test
+    void sortedQueries_shouldSeekOnRole() {
+        userReportRepository.findRowSlice(hr, null, null, PageRequest.of(0, 5, Sort.by("fullName")));
+        userReportRepository.findRowSlice(hr, null, null, PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "email")));
+
+        for (String sql : SqlCapture.STATEMENTS) {
+            String plan = explain(sql);
+            assertTrue(plan.contains(": role_id = ?1 */"), plan);
+            assertFalse(plan.contains("tablescan"), plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+    }
+
+    private static List<String> emails(Slice<UserReportRow> rows) {
+        return rows.getContent().stream().map(UserReportRow::getEmail).toList();
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static User user(int i, Role role) {
+        User user = new User();
+        user.setUserName("user" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setUserPhone("98765432" + String.format("%02d", i));
+        user.setPasswordHash("hash");
+        user.setFullName("User " + (char) ('Z' - i % 26));
+        user.setRole(role);
+        user.setCreatedAt(START.plusDays(i));
+        return user;
+    }
+
+    /**
+     * Records the SQL Hibernate sends, so its plan can be checked.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackages = "com.ibs.userservice")
+    static class Config {
+    }
+}
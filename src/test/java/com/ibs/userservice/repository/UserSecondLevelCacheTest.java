@@ -0,0 +1,121 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.config.HibernateCacheConfig;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs user loads against H2 with the second-level cache on, to check what the users region serves and when a
+ * bulk statement drops it. Hibernate does not cache a row inserted by the reading transaction, so the test runs without
+ * one and every repository call commits on its own, as it does in the service.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:usercache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "user.cache.secondLevel.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Role role;
+
+    private Integer userId;
+
+    @BeforeEach
+    void setUp() {
+        role = roleRepository.save(new Role(null, "HR", null));
+        User user = new User();
+        user.setUserName("cached");
+        user.setEmail("cached@example.com");
+        user.setUserPhone("9123456700");
+        user.setPasswordHash("hash");
+        user.setFullName("Cached User");
+        user.setRole(role);
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+        userId = userRepository.save(user).getUserId();
+        // The committed insert is cached already, start each test from a load
+        entityManagerFactory.getCache().evict(User.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(userId);
+        roleRepository.delete(role);
+    }
+
+    @Test
+    void findById_shouldServeTheSecondLoadFromTheUsersRegion() {
+        double hits = gets("hit");
+
+        userRepository.findById(userId).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+        assertEquals(hits, gets("hit"));
+
+        assertEquals("cached", userRepository.findById(userId).orElseThrow().getUserName());
+        assertEquals(hits + 1, gets("hit"));
+    }
+
+    @Test
+    void deactivateAllByUserIdIn_shouldEvictTheUsersRegion() {
+        userRepository.findById(userId).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+
+        assertEquals(1, userRepository.deactivateAllByUserIdIn(List.of(userId)));
+        assertFalse(entityManagerFactory.getCache().contains(User.class, userId));
+
+        double hits = gets("hit");
+        assertFalse(userRepository.findById(userId).orElseThrow().isActive());
+        assertEquals(hits, gets("hit"));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", HibernateCacheConfig.USERS_REGION).tag("result", result).functionCounter().count();
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackages = "com.ibs.userservice")
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ibs.userservice.repository;
+
+import com.ibs.userservice.dtos.requestDtos.UserFilterDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.UserStatsRepository.DailyStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the rollup SQL against the migrated schema on H2 in MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userstats;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserStatsRepository.class, UserUpdateRepository.class})
+class UserStatsRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private UserUpdateRepository userUpdateRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Role admin;
+
+    private Role hr;
+
+    private final List<Integer> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        admin = entityManager.persist(new Role(null, "ADMIN", null));
+        hr = entityManager.persist(new Role(null, "HR", null));
+        for (int i = 0; i < 6; i++) {
+            userIds.add(entityManager.persist(user(i, i < 2 ? admin : hr, DAY.plusDays(i % 2).atTime(i, 0), i != 3)).getUserId());
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void rebuild_shouldGroupUsersByRoleAndDay() {
+        userStatsRepository.rebuild();
+
+        assertEquals(List.of(
+                new DailyStats(admin.getRoleId(), DAY, 1, 1),
+                new DailyStats(admin.getRoleId(), DAY.plusDays(1), 1, 1),
+                new DailyStats(hr.getRoleId(), DAY, 2, 2),
+                new DailyStats(hr.getRoleId(), DAY.plusDays(1), 2, 1)), sorted(userStatsRepository.findAll()));
+    }
+
+    // add commits on its own, outside the test transaction, so it works on rows of this test's role only
+    @Test
+    void add_shouldCreateOrIncrementRows() {
+        userStatsRepository.add(List.of(new DailyStats(hr.getRoleId(), DAY, 2, 2)));
+        userStatsRepository.add(List.of(
+                new DailyStats(hr.getRoleId(), DAY, -1, -1),
+                new DailyStats(hr.getRoleId(), DAY.plusDays(5), 3, 2)));
+
+        assertEquals(List.of(
+                new DailyStats(hr.getRoleId(), DAY, 1, 1),
+                new DailyStats(hr.getRoleId(), DAY.plusDays(5), 3, 2)),
+                sorted(userStatsRepository.findAll().stream().filter(row -> row.roleId() == hr.getRoleId()).toList()));
+    }
+
+    @Test
+    void sumByUserIds_shouldCountOnlyGivenUsers() {
+        List<DailyStats> stats = userStatsRepository.sumByUserIds(List.of(userIds.get(2), userIds.get(3), userIds.get(5)));
+
+        assertEquals(List.of(
+                new DailyStats(hr.getRoleId(), DAY, 1, 1),
+                new DailyStats(hr.getRoleId(), DAY.plusDays(1), 2, 1)), sorted(stats));
+    }
+
+    @Test
+    void sumChanged_shouldCountWhatBulkUpdateChanges() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setRoleId(hr.getRoleId());
+
+        List<DailyStats> changed = userUpdateRepository.sumChanged(null, filter, null, false);
+        int updated = userUpdateRepository.updateAll(null, filter, null, false);
+
+        // User 3 is already inactive, so it is neither counted nor updated
+        assertEquals(List.of(
+                new DailyStats(hr.getRoleId(), DAY, 2, 2),
+                new DailyStats(hr.getRoleId(), DAY.plusDays(1), 1, 1)), sorted(changed));
+        assertEquals(3, updated);
+    }
+
+    @Test
+    void deactivateAllByUserIdIn_shouldCountOnlyUsersItDeactivated() {
+        // User 3 is already inactive, so deleting it again removes nothing
+        int first = userRepository.deactivateAllByUserIdIn(List.of(userIds.get(2), userIds.get(3)));
+        int second = userRepository.deactivateAllByUserIdIn(List.of(userIds.get(2), userIds.get(3)));
+
+        assertEquals(1, first);
+        assertEquals(0, second);
+    }
+
+    private static List<DailyStats> sorted(List<DailyStats> stats) {
+        return stats.stream()
+                .sorted(Comparator.comparing(DailyStats::roleId).thenComparing(DailyStats::signupDate))
+                .toList();
+    }
+
+    private static User user(int i, Role role, LocalDateTime createdAt, boolean active) {
+        User user = new User();
+        user.setUserName("stats" + i);
+        user.setEmail("stats" + i + "@example.com");
+        user.setUserPhone("91234567" + String.format("%02d", i));
+        user.setPasswordHash("hash");
+        user.setFullName("Stats User");
+        user.setRole(role);
+        user.setCreatedAt(createdAt);
+        user.setActive(active);
+        return user;
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackages = "com.ibs.userservice")
+    static class Config {
+    }
+}
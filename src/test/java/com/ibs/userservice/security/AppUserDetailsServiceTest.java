@@ -2,19 +2,26 @@ package com.ibs.userservice.security;
 
 import com.ibs.userservice.entity.Role;
 import com.ibs.userservice.entity.User;
+import com.ibs.userservice.event.UserChangedEvent;
 import com.ibs.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class AppUserDetailsServiceTest {
@@ -22,14 +29,20 @@ class AppUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
     private AppUserDetailsService appUserDetailsService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private User sampleUser;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        appUserDetailsService = new AppUserDetailsService(userRepository, loginAttemptService, 100, 300, meterRegistry);
 
         Role role = new Role();
         role.setRoleName("USER");
@@ -69,4 +82,128 @@ class AppUserDetailsServiceTest {
         assertThrows(UsernameNotFoundException.class, () ->
                 appUserDetailsService.loadUserByUsername("unknown_user"));
     }
+
+    @Test
+    void testUpdatePassword_PersistsNewHashAndEvictsCachedDetails() {
+        User rehashed = new User();
+        rehashed.setUserId(1);
+        rehashed.setUserName("john_doe");
+        rehashed.setPasswordHash("newHash");
+        rehashed.setRole(sampleUser.getRole());
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.of(sampleUser), Optional.of(rehashed));
+        when(userRepository.updatePasswordHash("john_doe", "password123", "newHash")).thenReturn(1);
+        UserDetails cached = appUserDetailsService.loadUserByUsername("john_doe");
+
+        UserDetails updated = appUserDetailsService.updatePassword(cached, "newHash");
+
+        assertThat(updated.getPassword()).isEqualTo("newHash");
+        assertThat(cached.getPassword()).isEqualTo("password123");
+        assertThat(appUserDetailsService.loadUserByUsername("john_doe").getPassword()).isEqualTo("newHash");
+        verify(userRepository, times(2)).findByUserName("john_doe");
+    }
+
+    @Test
+    void testUpdatePassword_KeepsPasswordChangedMeanwhile() {
+        when(userRepository.updatePasswordHash("john_doe", "password123", "newHash")).thenReturn(0);
+        AppUserDetails verified = new AppUserDetails(sampleUser);
+
+        UserDetails updated = appUserDetailsService.updatePassword(verified, "newHash");
+
+        assertThat(updated).isSameAs(verified);
+        verify(userRepository, never()).findByUserName("john_doe");
+    }
+
+    @Test
+    void testLoadUserByUsername_SecondLookupIsServedFromCache() {
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.of(sampleUser));
+
+        UserDetails first = appUserDetailsService.loadUserByUsername("john_doe");
+        UserDetails second = appUserDetailsService.loadUserByUsername("john_doe");
+
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findByUserName("john_doe");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "auth.userdetails").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testOnUserChanged_EvictsOnlyTheChangedUser() {
+        User other = new User();
+        other.setUserId(2);
+        other.setUserName("jane");
+        other.setRole(sampleUser.getRole());
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.of(sampleUser));
+        when(userRepository.findByUserName("jane")).thenReturn(Optional.of(other));
+        appUserDetailsService.loadUserByUsername("john_doe");
+        appUserDetailsService.loadUserByUsername("jane");
+
+        appUserDetailsService.onUserChanged(UserChangedEvent.updated(1));
+        appUserDetailsService.loadUserByUsername("john_doe");
+        appUserDetailsService.loadUserByUsername("jane");
+
+        verify(userRepository, times(2)).findByUserName("john_doe");
+        verify(userRepository, times(1)).findByUserName("jane");
+    }
+
+    @Test
+    void testOnUserChanged_EvictsRenamedUserLoadedUnderNewName() {
+        User renamed = new User();
+        renamed.setUserId(1);
+        renamed.setUserName("johnny");
+        renamed.setRole(sampleUser.getRole());
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.of(sampleUser));
+        when(userRepository.findByUserName("johnny")).thenReturn(Optional.of(renamed));
+        appUserDetailsService.loadUserByUsername("john_doe");
+
+        // The rename is read before its change event arrives; the entry under the old name must not outlive it
+        appUserDetailsService.loadUserByUsername("johnny");
+        appUserDetailsService.loadUserByUsername("john_doe");
+        appUserDetailsService.onUserChanged(UserChangedEvent.updated(1));
+        appUserDetailsService.loadUserByUsername("johnny");
+
+        verify(userRepository, times(2)).findByUserName("john_doe");
+        verify(userRepository, times(2)).findByUserName("johnny");
+    }
+
+    @Test
+    void testOnUserChanged_DropsDetailsLoadedWhileTheChangeCommitted() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(userRepository.findByUserName("john_doe")).thenAnswer(invocation -> {
+            reading.countDown();
+            committed.await(5, TimeUnit.SECONDS);
+            return Optional.of(sampleUser);
+        }).thenReturn(Optional.empty());
+
+        CompletableFuture<UserDetails> load = CompletableFuture.supplyAsync(() -> appUserDetailsService.loadUserByUsername("john_doe"));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        // The delete commits after the old row was read but before it is cached
+        appUserDetailsService.onUserChanged(UserChangedEvent.deleted(1));
+        committed.countDown();
+        load.get(5, TimeUnit.SECONDS);
+
+        assertThrows(UsernameNotFoundException.class, () -> appUserDetailsService.loadUserByUsername("john_doe"));
+    }
+
+    @Test
+    void testOnUserChanged_DeleteEvictsUser() {
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.of(sampleUser));
+        appUserDetailsService.loadUserByUsername("john_doe");
+
+        appUserDetailsService.onUserChanged(UserChangedEvent.deleted(1));
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> appUserDetailsService.loadUserByUsername("john_doe"));
+    }
+
+    @Test
+    void testLoadUserByUsername_ReflectsLockoutWithoutReloading() {
+        when(userRepository.findByUserName("john_doe")).thenReturn(Optional.of(sampleUser));
+        when(loginAttemptService.isLocked("john_doe")).thenReturn(false, true);
+
+        assertThat(appUserDetailsService.loadUserByUsername("john_doe").isAccountNonLocked()).isTrue();
+        assertThat(appUserDetailsService.loadUserByUsername("john_doe").isAccountNonLocked()).isFalse();
+
+        verify(userRepository, times(1)).findByUserName("john_doe");
+    }
 }
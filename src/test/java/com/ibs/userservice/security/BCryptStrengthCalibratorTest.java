@@ -0,0 +1,54 @@
+package com.ibs.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.info.Info;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    void strengthFor_shouldAddOneRoundPerDoublingOfTarget() {
+        assertThat(BCryptStrengthCalibrator.strengthFor(60, 60)).isEqualTo(10);
+        assertThat(BCryptStrengthCalibrator.strengthFor(60, 240)).isEqualTo(12);
+        assertThat(BCryptStrengthCalibrator.strengthFor(60, 1000)).isEqualTo(14);
+    }
+
+    @Test
+    void strengthFor_shouldClampToSupportedRange() {
+        assertThat(BCryptStrengthCalibrator.strengthFor(200, 10)).isEqualTo(BCryptStrengthCalibrator.MIN_AUTO_STRENGTH);
+        assertThat(BCryptStrengthCalibrator.strengthFor(1, 100_000)).isEqualTo(BCryptStrengthCalibrator.MAX_AUTO_STRENGTH);
+        assertThat(BCryptStrengthCalibrator.strengthFor(0, 250)).isEqualTo(BCryptStrengthCalibrator.MIN_AUTO_STRENGTH);
+    }
+
+    @Test
+    void fixedStrength_shouldBeUsedAndReported() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator("12", 250, meterRegistry);
+
+        Info.Builder builder = new Info.Builder();
+        calibrator.contribute(builder);
+
+        assertThat(calibrator.getStrength()).isEqualTo(12);
+        assertThat(meterRegistry.get("auth.password.bcrypt.strength").gauge().value()).isEqualTo(12);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> details = (Map<String, Object>) builder.build().getDetails().get("passwordEncoder");
+        assertThat(details).containsEntry("mode", "fixed").containsEntry("strength", 12);
+    }
+
+    @Test
+    void autoStrength_shouldCalibrateWithinRange() {
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator("auto", 1, new SimpleMeterRegistry());
+
+        assertThat(calibrator.getStrength()).isEqualTo(BCryptStrengthCalibrator.MIN_AUTO_STRENGTH);
+    }
+
+    @Test
+    void invalidStrength_shouldFailFast() {
+        assertThrows(IllegalArgumentException.class, () -> new BCryptStrengthCalibrator("40", 250, new SimpleMeterRegistry()));
+    }
+}
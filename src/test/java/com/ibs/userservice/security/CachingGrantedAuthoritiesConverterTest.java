@@ -0,0 +1,46 @@
+package com.ibs.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingGrantedAuthoritiesConverterTest {
+
+    @Test
+    void convert_shouldBuildAuthoritiesOncePerJwtInstance() {
+        AtomicInteger conversions = new AtomicInteger();
+        Converter<Jwt, Collection<GrantedAuthority>> delegate = jwt -> {
+            conversions.incrementAndGet();
+            return List.of(new SimpleGrantedAuthority("ADMIN"));
+        };
+        CachingGrantedAuthoritiesConverter converter = new CachingGrantedAuthoritiesConverter(delegate, 100, new SimpleMeterRegistry());
+        Jwt jwt = jwt();
+
+        assertThat(converter.convert(jwt)).extracting(GrantedAuthority::getAuthority).containsExactly("ADMIN");
+        assertThat(converter.convert(jwt)).extracting(GrantedAuthority::getAuthority).containsExactly("ADMIN");
+        assertThat(conversions).hasValue(1);
+
+        // An equal but separately decoded Jwt is converted again
+        converter.convert(jwt());
+        assertThat(conversions).hasValue(2);
+    }
+
+    private static Jwt jwt() {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("john")
+                .claim("roles", List.of("ADMIN"))
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ibs.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    @Mock
+    private OAuth2TokenValidator<Jwt> hitValidator;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(delegate, hitValidator, 100, meterRegistry);
+        when(hitValidator.validate(any())).thenReturn(OAuth2TokenValidatorResult.success());
+    }
+
+    @Test
+    void decode_shouldVerifyOnceAndReturnSameInstanceOnHit() {
+        Jwt jwt = jwt(Instant.now().plusSeconds(60));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("token"));
+        assertSame(jwt, decoder.decode("token"));
+
+        verify(delegate, times(1)).decode("token");
+        verify(hitValidator, times(1)).validate(jwt);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "auth.jwt.decode").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void decode_shouldRejectAndEvictWhenHitValidationFails() {
+        Jwt jwt = jwt(Instant.now().plusSeconds(60));
+        when(delegate.decode("token")).thenReturn(jwt);
+        decoder.decode("token");
+        when(hitValidator.validate(jwt)).thenReturn(OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Token has been revoked", null)));
+
+        JwtValidationException ex = assertThrows(JwtValidationException.class, () -> decoder.decode("token"));
+        assertEquals("Token has been revoked", ex.getMessage());
+
+        when(delegate.decode("token")).thenThrow(new BadJwtException("Token has been revoked"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void decode_shouldNotKeepEntriesPastTokenExpiry() {
+        Jwt expired = jwt(Instant.now().minusSeconds(1));
+        when(delegate.decode("token")).thenReturn(expired);
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void decode_shouldPropagateDelegateFailures() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("Invalid signature"));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("john")
+                .issuedAt(expiresAt.minusSeconds(120))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.entity.SigningKey;
+import com.ibs.userservice.repository.SigningKeyRepository;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class JwtKeyManagerTest {
+
+    private static final long ROTATION_MS = 30L * 24 * 3600 * 1000;
+    private static final long PUBLISH_AHEAD_MS = 3600_000L;
+    private static final long ACCESS_TTL_MS = 3600_000L;
+    private static final SigningKeyCipher CIPHER = new SigningKeyCipher(Base64.getEncoder().encodeToString(new byte[32]));
+
+    private List<SigningKey> store;
+
+    private SigningKeyRepository repository;
+
+    private JwtKeyManager keyManager;
+
+    @BeforeEach
+    void setUp() {
+        store = new ArrayList<>();
+        repository = inMemoryRepository(store);
+        keyManager = new JwtKeyManager(repository, CIPHER, ROTATION_MS, PUBLISH_AHEAD_MS, ACCESS_TTL_MS);
+    }
+
+    @Test
+    void init_shouldCreateAndPublishFirstKey() {
+        keyManager.init();
+
+        assertThat(store).hasSize(1);
+        String kid = store.get(0).getKid();
+        assertThat(keyManager.activeKey().kid()).isEqualTo(kid);
+        assertThat(keyManager.publicKey(kid)).isNotNull();
+        assertThat(keyManager.jwksJson()).contains("\"kid\":\"" + kid + "\"").contains("\"crv\":\"P-256\"").doesNotContain("\"d\"");
+    }
+
+    @Test
+    void init_shouldReuseExistingKeyWhenNotDue() {
+        keyManager.init();
+        JwtKeyManager other = new JwtKeyManager(repository, CIPHER, ROTATION_MS, PUBLISH_AHEAD_MS, ACCESS_TTL_MS);
+
+        other.init();
+
+        assertThat(store).hasSize(1);
+        assertThat(other.activeKey().kid()).isEqualTo(keyManager.activeKey().kid());
+    }
+
+    @Test
+    void rotateIfDue_shouldPublishNextKeyBeforeSigningWithIt() {
+        keyManager.init();
+        SigningKey first = store.get(0);
+        first.setActivatesAt(Instant.now().minusMillis(ROTATION_MS));
+
+        keyManager.rotateIfDue();
+
+        assertThat(store).hasSize(2);
+        SigningKey next = store.get(1);
+        assertThat(next.getActivatesAt()).isAfter(Instant.now());
+        assertThat(keyManager.activeKey().kid()).isEqualTo(first.getKid());
+        assertThat(keyManager.publicKey(next.getKid())).isNotNull();
+    }
+
+    @Test
+    void rotateIfDue_shouldRemoveKeysWhoseTokensHaveExpired() {
+        keyManager.init();
+        store.get(0).setActivatesAt(Instant.now().minusMillis(ROTATION_MS));
+        keyManager.rotateIfDue();
+        SigningKey retired = store.get(0);
+        SigningKey current = store.get(1);
+
+        current.setActivatesAt(Instant.now().minusMillis(ACCESS_TTL_MS + 1000));
+        keyManager.rotateIfDue();
+
+        verify(repository).deleteAll(List.of(retired));
+        assertThat(keyManager.activeKey().kid()).isEqualTo(current.getKid());
+        assertThat(keyManager.publicKey(retired.getKid())).isNull();
+    }
+
+    @Test
+    void jwkSource_shouldVerifyTokensSignedByJwtUtil() {
+        keyManager.init();
+        JwtUtil jwtUtil = new JwtUtil(keyManager, 60_000L);
+        String token = jwtUtil.generateToken(new User("john", "x", List.of(new SimpleGrantedAuthority("ADMIN"))));
+
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.ES256, keyManager.jwkSource()));
+        Jwt jwt = new NimbusJwtDecoder(processor).decode(token);
+
+        assertThat(jwt.getSubject()).isEqualTo("john");
+        assertThat(jwt.getHeaders()).containsEntry("kid", keyManager.activeKey().kid());
+    }
+
+    @Test
+    void init_shouldStorePrivateKeyEncryptedForItsKid() throws Exception {
+        keyManager.init();
+        SigningKey stored = store.get(0);
+
+        assertThat(stored.getPrivateKey()).startsWith("v1:");
+        assertThat(CIPHER.decrypt(stored.getPrivateKey(), stored.getKid()))
+                .isEqualTo(keyManager.activeKey().privateKey().getEncoded());
+        assertThatThrownBy(() -> CIPHER.decrypt(stored.getPrivateKey(), "other-kid")).isInstanceOf(GeneralSecurityException.class);
+        assertThatThrownBy(() -> new SigningKeyCipher(Base64.getEncoder().encodeToString(new byte[]{1}))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rotateIfDue_shouldEncryptKeysStoredInPlainText() throws Exception {
+        keyManager.init();
+        SigningKey stored = store.get(0);
+        byte[] privateKey = CIPHER.decrypt(stored.getPrivateKey(), stored.getKid());
+        stored.setPrivateKey(Base64.getEncoder().encodeToString(privateKey));
+
+        JwtKeyManager restarted = new JwtKeyManager(repository, CIPHER, ROTATION_MS, PUBLISH_AHEAD_MS, ACCESS_TTL_MS);
+        restarted.init();
+
+        assertThat(stored.getPrivateKey()).startsWith("v1:");
+        assertThat(restarted.activeKey().privateKey().getEncoded()).isEqualTo(privateKey);
+    }
+
+    /**
+     * Key manager over an in-memory key table, with its first key already created.
+     */
+    static JwtKeyManager inMemoryKeyManager() {
+        JwtKeyManager keyManager = new JwtKeyManager(inMemoryRepository(new ArrayList<>()), CIPHER, ROTATION_MS, PUBLISH_AHEAD_MS, ACCESS_TTL_MS);
+        keyManager.init();
+        return keyManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SigningKeyRepository inMemoryRepository(List<SigningKey> store) {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.findAllByOrderByActivatesAtAsc()).thenAnswer(invocation -> store.stream()
+                .sorted(Comparator.comparing(SigningKey::getActivatesAt)).toList());
+        when(repository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            SigningKey key = invocation.getArgument(0);
+            store.add(key);
+            return key;
+        });
+        doAnswer(invocation -> {
+            ((Iterable<SigningKey>) invocation.getArgument(0)).forEach(store::remove);
+            return null;
+        }).when(repository).deleteAll(anyIterable());
+        return repository;
+    }
+}
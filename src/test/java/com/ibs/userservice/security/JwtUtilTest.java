@@ -1,48 +1,42 @@
 package com.ibs.userservice.security;
 
-import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JwtUtilTest {
 
-    @InjectMocks
     private JwtUtil jwtUtil;
 
+    private JwtKeyManager keyManager;
+
     private UserDetails userDetails;
 
     @BeforeEach
-    void setUp() throws Exception {
-        MockitoAnnotations.openMocks(this);
-
+    void setUp() {
         // Mock UserDetails with roles
         Collection<GrantedAuthority> authorities =
                 List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
 
         userDetails = new User("john_doe", "password123", authorities);
 
-        // Manually inject secret and expirationMs using reflection (since @Value isn’t processed in unit tests)
-        Field secretField = JwtUtil.class.getDeclaredField("secret");
-        secretField.setAccessible(true);
-        secretField.set(jwtUtil, "mysecretkeymysecretkeymysecretkey12"); // 32+ chars for HS256
-
-        Field expirationField = JwtUtil.class.getDeclaredField("expirationMs");
-        expirationField.setAccessible(true);
-        expirationField.set(jwtUtil, 3600000L); // 1 hour
+        // ES256 key held in memory, 1 hour expiry
+        keyManager = JwtKeyManagerTest.inMemoryKeyManager();
+        jwtUtil = new JwtUtil(keyManager, 3600000L);
     }
 
     @Test
@@ -81,4 +75,58 @@ class JwtUtilTest {
         assertThat(payload).contains("roles");
         assertThat(payload).contains("ROLE_ADMIN");
     }
+
+    @Test
+    void testParseClaims_ReturnsSubjectAndRolesInOnePass() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        Optional<Claims> claims = jwtUtil.parseClaims(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("john_doe");
+        assertThat(claims.get().get("roles", List.class)).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void testParseClaims_RejectsTokenSignedWithAnotherKey() {
+        JwtUtil other = new JwtUtil(JwtKeyManagerTest.inMemoryKeyManager(), 3600000L);
+        String foreignToken = other.generateToken(userDetails);
+
+        assertThat(jwtUtil.parseClaims(foreignToken)).isEmpty();
+        assertThat(jwtUtil.parseClaims(null)).isEmpty();
+        assertThrows(JwtException.class, () -> jwtUtil.extractUsername(foreignToken));
+    }
+
+    @Test
+    void testParseClaims_RejectsExpiredToken() {
+        JwtUtil shortLived = new JwtUtil(keyManager, -1000L);
+        String expired = shortLived.generateToken(userDetails);
+
+        assertFalse(jwtUtil.validateToken(expired));
+    }
+
+    @Test
+    void testGenerateToken_AddsUniqueIdAndUserIdClaim() {
+        com.ibs.userservice.entity.User user = new com.ibs.userservice.entity.User();
+        user.setUserId(42);
+        user.setUserName("john_doe");
+        com.ibs.userservice.entity.Role role = new com.ibs.userservice.entity.Role();
+        role.setRoleName("ADMIN");
+        user.setRole(role);
+        AppUserDetails appUserDetails = new AppUserDetails(user);
+
+        Claims first = jwtUtil.parseClaims(jwtUtil.generateToken(appUserDetails)).orElseThrow();
+        Claims second = jwtUtil.parseClaims(jwtUtil.generateToken(appUserDetails)).orElseThrow();
+
+        assertThat(first.getId()).isNotBlank().isNotEqualTo(second.getId());
+        assertThat(first.get(JwtUtil.USER_ID_CLAIM, Integer.class)).isEqualTo(42);
+    }
+
+    @Test
+    void testGenerateToken_SignsWithActiveKeyAndKid() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        String header = new String(java.util.Base64.getUrlDecoder().decode(token.split("\\.")[0]));
+        assertThat(header).contains("\"alg\":\"ES256\"").contains("\"kid\":\"" + keyManager.activeKey().kid() + "\"");
+    }
 }
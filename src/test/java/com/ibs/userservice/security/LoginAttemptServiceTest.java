@@ -0,0 +1,59 @@
+package com.ibs.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginAttemptService = new LoginAttemptService(3, 60, 1000, meterRegistry, now::get);
+    }
+
+    @Test
+    void loginFailed_shouldLockAfterMaxFailures() {
+        loginAttemptService.loginFailed("john");
+        loginAttemptService.loginFailed("John");
+        assertFalse(loginAttemptService.isLocked("john"));
+
+        loginAttemptService.loginFailed("john");
+
+        assertTrue(loginAttemptService.isLocked("john"));
+        assertFalse(loginAttemptService.isLocked("jane"));
+        assertEquals(1.0, meterRegistry.get("auth.login.lockouts").counter().count());
+    }
+
+    @Test
+    void lockout_shouldEndAfterDuration() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptService.loginFailed("john");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertFalse(loginAttemptService.isLocked("john"));
+    }
+
+    @Test
+    void loginSucceeded_shouldResetFailures() {
+        loginAttemptService.loginFailed("john");
+        loginAttemptService.loginFailed("john");
+        loginAttemptService.loginSucceeded("john");
+        loginAttemptService.loginFailed("john");
+
+        assertFalse(loginAttemptService.isLocked("john"));
+    }
+}
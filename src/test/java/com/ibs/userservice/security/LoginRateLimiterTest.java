@@ -0,0 +1,75 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.exception.ThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // ip: burst 4, 60 per minute; username: burst 2, 6 per minute
+        rateLimiter = new LoginRateLimiter(4, 60, 2, 6, 1000, meterRegistry, now::get);
+    }
+
+    @Test
+    void acquire_shouldAllowBurstThenRejectWithRetryAfter() {
+        rateLimiter.acquire("john", "10.0.0.1");
+        rateLimiter.acquire("john", "10.0.0.1");
+
+        ThrottledException ex = assertThrows(ThrottledException.class, () -> rateLimiter.acquire("john", "10.0.0.1"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        assertEquals(10, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "username").counter().count());
+    }
+
+    @Test
+    void acquire_shouldRefillOverTime() {
+        rateLimiter.acquire("john", "10.0.0.1");
+        rateLimiter.acquire("john", "10.0.0.1");
+        assertThrows(ThrottledException.class, () -> rateLimiter.acquire("john", "10.0.0.1"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertDoesNotThrow(() -> rateLimiter.acquire("john", "10.0.0.1"));
+    }
+
+    @Test
+    void acquire_shouldLimitIpAcrossUsernames() {
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(ThrottledException.class, () -> rateLimiter.acquire("other", "10.0.0.1"));
+        assertDoesNotThrow(() -> rateLimiter.acquire("other", "10.0.0.2"));
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void acquire_shouldTreatUsernamesCaseInsensitively() {
+        rateLimiter.acquire("John", "10.0.0.1");
+        rateLimiter.acquire("JOHN", "10.0.0.2");
+
+        assertThrows(ThrottledException.class, () -> rateLimiter.acquire("john", "10.0.0.3"));
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new LoginRateLimiter(0, 60, 2, 6, 1000, meterRegistry, now::get));
+    }
+}
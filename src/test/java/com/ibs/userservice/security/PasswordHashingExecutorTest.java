@@ -0,0 +1,113 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.exception.ThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor hashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 2, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void encode_shouldRunOnHashingThreadAndRecordLatency() {
+        String threadName = hashingExecutor.encode(() -> Thread.currentThread().getName());
+
+        assertThat(threadName).startsWith("password-hash-");
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void nestedCall_shouldRunInlineOnHashingThread() {
+        boolean nested = hashingExecutor.matches(() -> hashingExecutor.matches(hashingExecutor::isHashingThread));
+
+        assertThat(nested).isTrue();
+        assertThat(hashingExecutor.isHashingThread()).isFalse();
+    }
+
+    @Test
+    void encode_shouldRejectWith503WhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // One task occupies the only thread, the second fills the queue of one
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> hashingExecutor.encode(() -> {
+            running.countDown();
+            await(release);
+            return "busy";
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hashingExecutor.encode(() -> "queued"));
+        waitForQueueDepth(1);
+
+        ThrottledException ex = assertThrows(ThrottledException.class, () -> hashingExecutor.encode(() -> "rejected"));
+
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(ex.getRetryAfterSeconds()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("busy");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void matches_shouldPropagateTaskFailure() {
+        assertThrows(IllegalArgumentException.class, () -> hashingExecutor.matches(() -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("auth.password.hash.queue.depth").gauge().value() < depth
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void encodeAll_shouldKeepOrderAndUseOneQueueSlotPerSlice() {
+        PasswordHashingExecutor fourThreads = new PasswordHashingExecutor(4, 2, 2, meterRegistry);
+        try {
+            java.util.List<Integer> items = java.util.stream.IntStream.range(0, 50).boxed().toList();
+
+            java.util.List<String> hashes = fourThreads.encodeAll(items, i -> "h" + i + ":" + fourThreads.isHashingThread());
+
+            assertThat(hashes).hasSize(50);
+            assertThat(hashes.get(0)).isEqualTo("h0:true");
+            assertThat(hashes.get(49)).isEqualTo("h49:true");
+        } finally {
+            fourThreads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RehashingAuthenticationProviderTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserDetailsPasswordService passwordService;
+
+    @Mock
+    private PasswordHashingExecutor hashingExecutor;
+
+    private CostAwareBCryptPasswordEncoder passwordEncoder;
+    private RehashingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        passwordEncoder = new CostAwareBCryptPasswordEncoder(5);
+        provider = new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, passwordService, hashingExecutor);
+        // Run background work inline so the test can observe it
+        when(hashingExecutor.submitBackground(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return true;
+        });
+    }
+
+    @Test
+    void authenticate_shouldRehashInBackgroundWhenCostIsLower() {
+        AppUserDetails user = userWithHash(new CostAwareBCryptPasswordEncoder(4).encode("secret"));
+        when(userDetailsService.loadUserByUsername("john")).thenReturn(user);
+
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("john", "secret"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(hashingExecutor).submitBackground(any());
+        verify(passwordService).updatePassword(eq(user), newHash.capture());
+        assertThat(newHash.getValue()).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches("secret", newHash.getValue())).isTrue();
+    }
+
+    @Test
+    void authenticate_shouldNotRehashWhenCostMatches() {
+        AppUserDetails user = userWithHash(passwordEncoder.encode("secret"));
+        when(userDetailsService.loadUserByUsername("john")).thenReturn(user);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("john", "secret"));
+
+        verify(hashingExecutor, never()).submitBackground(any());
+        verify(passwordService, never()).updatePassword(any(), anyString());
+    }
+
+    @Test
+    void upgradeEncoding_shouldIgnoreNonBcryptValues() {
+        assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding("plain-text")).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding("$2a$04$abcdefghijklmnopqrstuv")).isTrue();
+        // A stronger hash, e.g. from an instance with a higher strength, is kept
+        assertThat(passwordEncoder.upgradeEncoding("$2a$12$abcdefghijklmnopqrstuv")).isFalse();
+    }
+
+    private static AppUserDetails userWithHash(String hash) {
+        Role role = new Role();
+        role.setRoleName("ADMIN");
+        User user = new User();
+        user.setUserName("john");
+        user.setPasswordHash(hash);
+        user.setRole(role);
+        return new AppUserDetails(user);
+    }
+}
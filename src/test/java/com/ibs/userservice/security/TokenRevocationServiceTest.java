@@ -0,0 +1,103 @@
+package com.ibs.userservice.security;
+
+import com.ibs.userservice.entity.RevokedToken;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        revocationService = new TokenRevocationService(revokedTokenRepository, 60_000L, 1000, 0.01);
+    }
+
+    @Test
+    void revokeToken_shouldPersistAndRejectOnlyThatToken() {
+        revocationService.revokeToken("jti-1", Instant.now().plusSeconds(60));
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertTrue(revocationService.isTokenRevoked("jti-1"));
+        assertFalse(revocationService.isTokenRevoked("jti-2"));
+    }
+
+    @Test
+    void revokeUser_shouldRejectOnlyTokensIssuedBeforeRevocation() {
+        long now = Instant.now().getEpochSecond();
+        revocationService.revokeUser(7);
+
+        assertTrue(revocationService.isUserRevoked(7, now - 10));
+        assertFalse(revocationService.isUserRevoked(7, now + 10));
+        assertFalse(revocationService.isUserRevoked(8, now - 10));
+    }
+
+    @Test
+    void onUserChanged_shouldRevokeDeletedAndDeactivatedUsersOnly() {
+        long before = Instant.now().getEpochSecond() - 1;
+
+        revocationService.onUserChanged(UserChangedEvent.updated(3));
+        revocationService.onUserChanged(UserChangedEvent.deleted(4));
+        revocationService.onUserChanged(UserChangedEvent.deactivated(5));
+
+        assertFalse(revocationService.isUserRevoked(3, before));
+        assertTrue(revocationService.isUserRevoked(4, before));
+        assertTrue(revocationService.isUserRevoked(5, before));
+    }
+
+    @Test
+    void reload_shouldRebuildFromRepositoryAfterDroppingExpired() {
+        Instant now = Instant.now();
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken(1L, "jti-db", null, now, now.plusSeconds(60)),
+                new RevokedToken(2L, null, 9, now, now.plusSeconds(60))));
+        revocationService.revokeToken("jti-local", now.plusSeconds(60));
+
+        revocationService.reload();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertTrue(revocationService.isTokenRevoked("jti-db"));
+        assertTrue(revocationService.isUserRevoked(9, now.getEpochSecond()));
+        // Entries that are not in the database any more (expired or written elsewhere) are dropped
+        assertFalse(revocationService.isTokenRevoked("jti-local"));
+    }
+
+    @Test
+    void validator_shouldRejectRevokedTokenAndUser() {
+        RevokedTokenValidator validator = new RevokedTokenValidator(revocationService);
+        Instant issuedAt = Instant.now().minusSeconds(5);
+        revocationService.revokeToken("jti-1", issuedAt.plusSeconds(60));
+
+        assertTrue(validator.validate(jwt("jti-1", 1, issuedAt)).hasErrors());
+        assertFalse(validator.validate(jwt("jti-2", 1, issuedAt)).hasErrors());
+
+        revocationService.revokeUser(1);
+        assertTrue(validator.validate(jwt("jti-2", 1, issuedAt)).hasErrors());
+    }
+
+    private static Jwt jwt(String tokenId, int userId, Instant issuedAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .jti(tokenId)
+                .claim(JwtUtil.USER_ID_CLAIM, (long) userId)
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(60))
+                .build();
+    }
+}
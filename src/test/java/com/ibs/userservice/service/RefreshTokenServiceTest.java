@@ -0,0 +1,125 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.entity.RefreshToken;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 60_000L);
+        user = new User();
+        user.setUserId(5);
+        user.setUserName("john");
+    }
+
+    @Test
+    void issue_shouldStoreOnlyTheHash() {
+        String rawToken = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertNotEquals(rawToken, saved.getValue().getTokenHash());
+        assertEquals(RefreshTokenService.hash(rawToken), saved.getValue().getTokenHash());
+        assertEquals(user, saved.getValue().getUser());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void rotate_shouldRevokeCurrentAndIssueReplacement() {
+        RefreshToken current = token(false, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revoke(1L)).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertEquals(user, rotation.user());
+        assertNotEquals("raw", rotation.refreshToken());
+        verify(refreshTokenRepository).revoke(1L);
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void rotate_shouldRevokeAllTokensWhenUsedTokenIsReplayed() {
+        RefreshToken used = token(true, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(used));
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeAllForUser(5);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_shouldTreatLostRaceAsReuse() {
+        RefreshToken current = token(false, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revoke(1L)).thenReturn(0);
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeAllForUser(5);
+    }
+
+    @Test
+    void rotate_shouldRejectDeactivatedUser() {
+        user.setActive(false);
+        RefreshToken current = token(false, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(current));
+
+        assertThrows(DisabledException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_shouldRejectExpiredAndUnknownTokens() {
+        RefreshToken expired = token(false, LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired"))).thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("unknown"))).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("expired"));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("unknown"));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate(" "));
+        verify(refreshTokenRepository, never()).revoke(any());
+    }
+
+    private RefreshToken token(boolean revoked, LocalDateTime expiresAt) {
+        RefreshToken token = new RefreshToken();
+        token.setId(1L);
+        token.setUser(user);
+        token.setRevoked(revoked);
+        token.setExpiresAt(expiresAt);
+        return token;
+    }
+
+    @Test
+    void revoke_shouldRevokeByHashAndIgnoreBlank() {
+        refreshTokenService.revoke("raw-token");
+        refreshTokenService.revoke(" ");
+
+        verify(refreshTokenRepository, times(1)).revokeByTokenHash(RefreshTokenService.hash("raw-token"));
+    }
+}
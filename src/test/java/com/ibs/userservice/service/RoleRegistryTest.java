@@ -0,0 +1,68 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoleRegistryTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private RoleRegistry roleRegistry;
+
+    private final Role panel = new Role(3, "PANEL", null);
+    private final Role admin = new Role(1, "ADMIN", null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(roleRepository.findAll()).thenReturn(List.of(panel, admin));
+        roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.refresh();
+    }
+
+    @Test
+    void lookups_shouldBeServedFromMemoryIgnoringCase() {
+        assertSame(panel, roleRegistry.findById(3).orElseThrow());
+        assertSame(panel, roleRegistry.findByName("panel").orElseThrow());
+        assertSame(admin, roleRegistry.findByName(" Admin ").orElseThrow());
+        assertEquals(List.of(admin, panel), roleRegistry.getAll());
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void getAll_shouldBeUnmodifiable() {
+        assertThrows(UnsupportedOperationException.class, () -> roleRegistry.getAll().add(new Role()));
+    }
+
+    @Test
+    void unknownRole_shouldReloadAtMostOncePerInterval() {
+        assertTrue(roleRegistry.findById(9).isEmpty());
+        assertTrue(roleRegistry.findByName("HR").isEmpty());
+        verify(roleRepository, times(1)).findAll();
+
+        Role hr = new Role(2, "HR", null);
+        when(roleRepository.findAll()).thenReturn(List.of(panel, admin, hr));
+        ReflectionTestUtils.setField(roleRegistry, "lastReloadMs", 0L);
+
+        assertSame(hr, roleRegistry.findByName("hr").orElseThrow());
+        assertSame(hr, roleRegistry.getById(2));
+        verify(roleRepository, times(2)).findAll();
+    }
+
+    @Test
+    void getById_shouldThrowForUnknownRole() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> roleRegistry.getById(9));
+        assertEquals("Role not found", exception.getMessage());
+    }
+}
@@ -1,13 +1,11 @@
 package com.ibs.userservice.service;
 
 import com.ibs.userservice.entity.Role;
-import com.ibs.userservice.repository.RoleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -18,7 +16,7 @@ import static org.mockito.Mockito.*;
 class RoleServiceTest {
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @InjectMocks
     private RoleService roleService;
@@ -41,7 +39,7 @@ class RoleServiceTest {
 
         List<Role> mockRoles = Arrays.asList(admin, hr);
 
-        when(roleRepository.findAll(any(Sort.class))).thenReturn(mockRoles);
+        when(roleRegistry.getAll()).thenReturn(mockRoles);
 
         // Act
         List<Role> result = roleService.getAllRoles();
@@ -51,6 +49,18 @@ class RoleServiceTest {
         assertEquals(2, result.size());
         assertEquals("ADMIN", result.get(0).getRoleName());
         assertEquals("HR", result.get(1).getRoleName());
-        verify(roleRepository, times(1)).findAll(any(Sort.class));
+        verify(roleRegistry, times(1)).getAll();
+    }
+
+    @Test
+    void refreshRoles_shouldReloadRegistry() {
+        Role admin = new Role();
+        admin.setRoleName("ADMIN");
+        when(roleRegistry.refresh()).thenReturn(List.of(admin));
+
+        List<Role> result = roleService.refreshRoles();
+
+        assertEquals(1, result.size());
+        verify(roleRegistry).refresh();
     }
 }
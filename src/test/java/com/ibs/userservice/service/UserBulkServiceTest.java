@@ -0,0 +1,180 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.enums.BulkRowStatus;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.repository.RoleRepository;
+import com.ibs.userservice.repository.UserBatchRepository;
+import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserBulkServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    private UserBulkService userBulkService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        passwordHashingExecutor = new PasswordHashingExecutor(2, 4, 1, new SimpleMeterRegistry());
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        Role role = new Role();
+        role.setRoleId(1);
+        role.setRoleName("PANEL");
+        when(roleRepository.findAll()).thenReturn(List.of(role));
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.refresh();
+        userBulkService = new UserBulkService(userRepository, roleRegistry, userBatchRepository, passwordEncoder,
+                passwordHashingExecutor, validator, eventPublisher, userStatsService, 3);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setUserId(100 + i);
+            }
+            return null;
+        }).when(userBatchRepository).insertAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    void createUsers_shouldInsertValidRowsInOneBatchAndReportEachRow() {
+        UserRequestDTO invalid = request("bad", "not-an-email", "9876500002", 1);
+        BulkUserResponseDTO response = userBulkService.createUsers(List.of(
+                request("anna", "anna@example.com", "9876500001", 1),
+                invalid,
+                request("ben", "ben@example.com", "9876500003", 1)));
+
+        assertEquals(3, response.getRequested());
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getRejected());
+        assertEquals(BulkRowStatus.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(100, response.getResults().get(0).getUserId());
+        assertEquals(BulkRowStatus.INVALID, response.getResults().get(1).getStatus());
+        assertTrue(response.getResults().get(1).getErrors().containsKey("email"));
+        assertEquals(101, response.getResults().get(2).getUserId());
+
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository, times(1)).insertAll(captor.capture());
+        assertEquals("hash-secret1", captor.getValue().get(0).getPasswordHash());
+        // Only the registry load at startup; rows resolve their role from memory
+        verify(roleRepository, times(1)).findAll();
+        verify(userStatsService).recordCreated(captor.getValue());
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.CREATED, Set.of(100, 101)));
+    }
+
+    @Test
+    void createUsers_shouldRejectUnknownRolesAndConflicts() {
+        UserRepository.UserIdentifiers existing = mock(UserRepository.UserIdentifiers.class);
+        when(existing.getUserName()).thenReturn("Anna");
+        when(existing.getEmail()).thenReturn("old@example.com");
+        when(existing.getUserPhone()).thenReturn("9000000000");
+        when(userRepository.findByUserNameInOrEmailInOrUserPhoneIn(any(), any(), any())).thenReturn(List.of(existing));
+
+        BulkUserResponseDTO response = userBulkService.createUsers(List.of(
+                request("anna", "anna@example.com", "9876500001", 1),
+                request("carl", "carl@example.com", "9876500002", 9),
+                request("dora", "dora@example.com", "9876500003", 1)));
+
+        assertEquals(BulkRowStatus.CONFLICT, response.getResults().get(0).getStatus());
+        assertEquals("Username already exists", response.getResults().get(0).getErrors().get("userName"));
+        assertEquals(BulkRowStatus.INVALID, response.getResults().get(1).getStatus());
+        assertEquals("Role not found", response.getResults().get(1).getErrors().get("roleId"));
+        assertEquals(BulkRowStatus.CREATED, response.getResults().get(2).getStatus());
+        verify(passwordEncoder, times(1)).encode(anyString());
+    }
+
+    @Test
+    void createUsers_shouldRejectDuplicatesWithinRequest() {
+        BulkUserResponseDTO response = userBulkService.createUsers(List.of(
+                request("anna", "anna@example.com", "9876500001", 1),
+                request("ANNA", "other@example.com", "9876500002", 1)));
+
+        assertEquals(BulkRowStatus.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(BulkRowStatus.CONFLICT, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void createUsers_shouldNotInsertWhenNoRowIsValid() {
+        BulkUserResponseDTO response = userBulkService.createUsers(List.of(request("", "x", "1", 1)));
+
+        assertEquals(0, response.getCreated());
+        verify(userBatchRepository, never()).insertAll(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void createUsers_shouldRejectEmptyAndOversizedRequests() {
+        assertThrows(IllegalArgumentException.class, () -> userBulkService.createUsers(List.of()));
+        UserRequestDTO dto = request("anna", "anna@example.com", "9876500001", 1);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> userBulkService.createUsers(List.of(dto, dto, dto, dto)));
+        assertTrue(ex.getMessage().contains("/api/v1/users/import"));
+    }
+
+    @Test
+    void importUsers_shouldNotApplyTheRequestRowCap() {
+        List<UserRequestDTO> dtos = IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> request("user" + i, "user" + i + "@example.com", "987650000" + i, 1)).toList();
+
+        BulkUserResponseDTO response = userBulkService.importUsers(dtos);
+
+        assertEquals(5, response.getCreated());
+    }
+
+    private static UserRequestDTO request(String userName, String email, String phone, int roleId) {
+        UserRequestDTO dto = new UserRequestDTO();
+        dto.setUserName(userName);
+        dto.setEmail(email);
+        dto.setUserPhone(phone);
+        dto.setPassword("secret" + phone.charAt(phone.length() - 1));
+        dto.setFullName(userName);
+        dto.setActive(true);
+        dto.setRoleId(roleId);
+        return dto;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ibs.userservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCsvReaderTest {
+
+    @Test
+    void next_shouldMapColumnsByHeaderInAnyOrder() throws Exception {
+        String csv = "\uFEFFRoleId,Email,UserName,Active,FullName\n\n2,\"doe, jane\"@example.com,jane,false,\"Jane \"\"JD\"\" Doe\"\n";
+        try (UserCsvReader reader = new UserCsvReader(new BufferedReader(new StringReader(csv)))) {
+            UserCsvReader.Row row = reader.next();
+
+            assertEquals(3, row.lineNumber());
+            assertNull(row.parseErrors());
+            assertEquals("jane", row.user().getUserName());
+            assertEquals("doe, jane@example.com", row.user().getEmail());
+            assertEquals("Jane \"JD\" Doe", row.user().getFullName());
+            assertEquals(2, row.user().getRoleId());
+            assertFalse(row.user().isActive());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void next_shouldReportNonNumericRoleId() throws Exception {
+        try (UserCsvReader reader = new UserCsvReader(new BufferedReader(new StringReader("userName,email,roleId\njane,j@example.com,admin\n")))) {
+            UserCsvReader.Row row = reader.next();
+
+            assertEquals("Role ID must be a number", row.parseErrors().get("roleId"));
+            assertTrue(row.user().isActive());
+        }
+    }
+
+    @Test
+    void constructor_shouldRejectHeaderWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new UserCsvReader(new BufferedReader(new StringReader("userName,roleId\n"))));
+    }
+
+    @Test
+    void split_shouldKeepEmptyTrailingField() {
+        assertEquals(List.of("a", "", ""), UserCsvReader.split("a,,"));
+    }
+}
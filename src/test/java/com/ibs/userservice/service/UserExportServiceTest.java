@@ -0,0 +1,122 @@
+package com.ibs.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.enums.ExportFormat;
+import com.ibs.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserExportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserExportService userExportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userExportService = new UserExportService(userRepository, objectMapper);
+    }
+
+    @Test
+    void export_shouldWriteJsonArrayAndCloseStream() throws Exception {
+        stream(user(1, "John"), user(2, "Jane"));
+
+        String json = export(ExportFormat.JSON);
+
+        List<UserResponseDTO> users = List.of(objectMapper.readValue(json, UserResponseDTO[].class));
+        assertEquals(List.of(1, 2), users.stream().map(UserResponseDTO::getUserId).toList());
+        assertFalse(json.contains("password"));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLine() throws Exception {
+        stream(user(1, "John"), user(2, "Jane"));
+
+        String[] lines = export(ExportFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("Jane", objectMapper.readValue(lines[1], UserResponseDTO.class).getFullName());
+    }
+
+    @Test
+    void export_shouldWriteCsvWithHeaderAndEscaping() throws Exception {
+        stream(user(1, "Doe, \"JD\" John"));
+
+        String[] lines = export(ExportFormat.CSV).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("userId,userName"));
+        assertEquals("1,user1,,user1@example.com,\"Doe, \"\"JD\"\" John\",true,2,HR,2025-01-01T10:00,", lines[1]);
+    }
+
+    @Test
+    void export_shouldKeepFormulaLikeCsvFieldsAsText() throws Exception {
+        stream(user(1, "=HYPERLINK(\"http://example.com\")"), user(2, "@SUM(A1)"));
+
+        String[] lines = export(ExportFormat.CSV).split("\n");
+
+        assertEquals("1,user1,,user1@example.com,\"'=HYPERLINK(\"\"http://example.com\"\")\",true,2,HR,2025-01-01T10:00,", lines[1]);
+        assertEquals("2,user2,,user2@example.com,'@SUM(A1),true,2,HR,2025-01-01T10:00,", lines[2]);
+    }
+
+    @Test
+    void export_shouldWriteEveryRowOfLargeExports() throws Exception {
+        stream(IntStream.rangeClosed(1, UserExportService.FLUSH_EVERY * 2 + 1).mapToObj(i -> user(i, "User " + i)).toArray(UserResponseDTO[]::new));
+
+        assertEquals(UserExportService.FLUSH_EVERY * 2 + 1, export(ExportFormat.NDJSON).split("\n").length);
+    }
+
+    @Test
+    void export_shouldWriteEmptyArrayWhenNoUsers() throws Exception {
+        stream();
+
+        assertEquals("[]", export(ExportFormat.JSON));
+        assertEquals("", export(ExportFormat.NDJSON));
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userExportService.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void stream(UserResponseDTO... users) {
+        when(userRepository.streamAllResponses()).thenAnswer(invocation ->
+                Stream.of(users).onClose(() -> streamClosed.set(true)));
+    }
+
+    private static UserResponseDTO user(int id, String fullName) {
+        return UserResponseDTO.builder()
+                .userId(id)
+                .userName("user" + id)
+                .email("user" + id + "@example.com")
+                .fullName(fullName)
+                .active(true)
+                .roleId(2)
+                .roleName("HR")
+                .createdAt(LocalDateTime.of(2025, 1, 1, 10, 0))
+                .build();
+    }
+}
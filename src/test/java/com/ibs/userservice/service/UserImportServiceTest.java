@@ -0,0 +1,180 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserResultDTO;
+import com.ibs.userservice.dtos.responseDtos.ImportJobStatusDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.enums.BulkRowStatus;
+import com.ibs.userservice.enums.ImportJobStatus;
+import com.ibs.userservice.exception.ThrottledException;
+import com.ibs.userservice.repository.RoleRepository;
+import com.ibs.userservice.repository.UserBatchRepository;
+import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    @Mock
+    private UserBulkService userBulkService;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userImportService = new UserImportService(userBulkService, 1, 2, 2, 10, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.shutdown();
+    }
+
+    @Test
+    void startImport_shouldImportInChunksAndReportRejectedLines() throws Exception {
+        when(userBulkService.importUsers(anyList())).thenAnswer(invocation -> {
+            List<UserRequestDTO> dtos = invocation.getArgument(0);
+            List<BulkUserResultDTO> results = new ArrayList<>();
+            for (int i = 0; i < dtos.size(); i++) {
+                String userName = dtos.get(i).getUserName();
+                results.add(userName.equals("taken")
+                        ? new BulkUserResultDTO(i, BulkRowStatus.CONFLICT, null, userName, Map.of("userName", "Username already exists"))
+                        : new BulkUserResultDTO(i, BulkRowStatus.CREATED, i + 1, userName, null));
+            }
+            return new BulkUserResponseDTO(dtos.size(), 0, 0, results);
+        });
+        String csv = """
+                userName,email,password,roleId
+                alice,alice@example.com,secret123,1
+                bob,bob@example.com,secret123,x
+                taken,taken@example.com,secret123,1
+                carol,carol@example.com,secret123,1
+                """;
+
+        ImportJobStatusDTO status = awaitFinished(userImportService.startImport(csvFile(csv)).getJobId());
+
+        assertEquals(ImportJobStatus.COMPLETED, status.getStatus());
+        assertEquals(4, status.getRowsProcessed());
+        assertEquals(2, status.getCreated());
+        assertEquals(2, status.getRejected());
+        assertEquals(List.of(3L, 4L), status.getFailures().stream().map(f -> f.getLineNumber()).sorted().toList());
+        verify(userBulkService, times(2)).importUsers(anyList());
+    }
+
+    @Test
+    void startImport_shouldRetryChunkWhenHashingIsSaturated() throws Exception {
+        when(userBulkService.importUsers(anyList()))
+                .thenThrow(new RuntimeException(new ThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "busy", 0)))
+                .thenReturn(new BulkUserResponseDTO(1, 1, 0,
+                        List.of(new BulkUserResultDTO(0, BulkRowStatus.CREATED, 1, "alice", null))));
+
+        ImportJobStatusDTO status = awaitFinished(userImportService.startImport(
+                csvFile("userName,email,roleId\nalice,alice@example.com,1\n")).getJobId());
+
+        assertEquals(ImportJobStatus.COMPLETED, status.getStatus());
+        assertEquals(1, status.getCreated());
+        verify(userBulkService, times(2)).importUsers(anyList());
+    }
+
+    @Test
+    void startImport_shouldImportChunksLargerThanTheBulkRequestCap() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        UserBatchRepository userBatchRepository = mock(UserBatchRepository.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(roleRepository.findAll()).thenReturn(List.of(new Role(1, "PANEL", null)));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+        AtomicInteger ids = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setUserId(ids.incrementAndGet()));
+            return null;
+        }).when(userBatchRepository).insertAll(anyList());
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.refresh();
+        PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(2, 4, 1, new SimpleMeterRegistry());
+        // Bulk requests take at most 2 rows, the import sends chunks of 5
+        UserBulkService realBulkService = new UserBulkService(userRepository, roleRegistry, userBatchRepository, passwordEncoder,
+                passwordHashingExecutor, Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(ApplicationEventPublisher.class), mock(UserStatsService.class), 2);
+        UserImportService importService = new UserImportService(realBulkService, 1, 2, 5, 10, 60);
+        StringBuilder csv = new StringBuilder("userName,email,userPhone,password,roleId\n");
+        for (int i = 1; i <= 7; i++) {
+            csv.append("user").append(i).append(",user").append(i).append("@example.com,987650000").append(i).append(",secret123,1\n");
+        }
+        try {
+            ImportJobStatusDTO status = awaitFinished(importService, importService.startImport(csvFile(csv.toString())).getJobId());
+
+            assertEquals(ImportJobStatus.COMPLETED, status.getStatus(), status.getMessage());
+            assertEquals(7, status.getCreated());
+            verify(userBatchRepository, times(2)).insertAll(anyList());
+        } finally {
+            importService.shutdown();
+            passwordHashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void startImport_shouldFailJobWhenHeaderIsMissingColumns() throws Exception {
+        ImportJobStatusDTO status = awaitFinished(userImportService.startImport(csvFile("name,mail\nalice,a@example.com\n")).getJobId());
+
+        assertEquals(ImportJobStatus.FAILED, status.getStatus());
+        assertNotNull(status.getMessage());
+        verifyNoInteractions(userBulkService);
+    }
+
+    @Test
+    void startImport_shouldRejectEmptyFile() {
+        assertThrows(IllegalArgumentException.class, () -> userImportService.startImport(csvFile("")));
+    }
+
+    @Test
+    void getStatus_shouldBeEmptyForUnknownJob() {
+        assertTrue(userImportService.getStatus("missing").isEmpty());
+    }
+
+    private static MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "users.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ImportJobStatusDTO awaitFinished(String jobId) throws InterruptedException {
+        return awaitFinished(userImportService, jobId);
+    }
+
+    private static ImportJobStatusDTO awaitFinished(UserImportService userImportService, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ImportJobStatusDTO status = userImportService.getStatus(jobId).orElseThrow();
+            if (status.getStatus() == ImportJobStatus.COMPLETED || status.getStatus() == ImportJobStatus.FAILED) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        fail("Import did not finish");
+        return null;
+    }
+}
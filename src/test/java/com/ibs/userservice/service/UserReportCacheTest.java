@@ -0,0 +1,111 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserReportCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserWriteVersion userWriteVersion = new UserWriteVersion();
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        UserReportCache cache = new UserReportCache(10, 60, userWriteVersion, meterRegistry);
+
+        cache.get(List.of(1, "a"), this::query);
+        cache.get(List.of(1, "a"), this::query);
+        cache.get(List.of(1, "b"), this::query);
+
+        assertEquals(2, queries.get());
+        assertEquals(1, gets("hit"));
+        assertEquals(2, gets("miss"));
+    }
+
+    @Test
+    void get_shouldNotServePagesReadWhileUsersChanged() {
+        UserReportCache cache = new UserReportCache(10, 60, userWriteVersion, meterRegistry);
+
+        cache.get(List.of(1), () -> {
+            // A change commits while the page is being read
+            userWriteVersion.onUserChanged(UserChangedEvent.updated(1));
+            return query();
+        });
+        cache.get(List.of(1), this::query);
+        cache.get(List.of(1), this::query);
+
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void get_shouldLetConcurrentRequestsWaitForOneQuery() throws Exception {
+        UserReportCache cache = new UserReportCache(10, 60, userWriteVersion, meterRegistry);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ReportResponseDto> first = CompletableFuture.supplyAsync(() -> cache.get(List.of(1), () -> {
+            querying.countDown();
+            await(release);
+            return query();
+        }));
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        // Other pages are served while the first one is still being read
+        cache.get(List.of(2), this::query);
+        CompletableFuture<ReportResponseDto> second = CompletableFuture.supplyAsync(() -> cache.get(List.of(1), this::query));
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void get_shouldNotCacheFailedQueries() {
+        UserReportCache cache = new UserReportCache(10, 60, userWriteVersion, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(List.of(1), () -> {
+            throw new IllegalStateException("query failed");
+        }));
+        cache.get(List.of(1), this::query);
+
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void get_shouldAlwaysQueryWhenTurnedOff() {
+        UserReportCache cache = new UserReportCache(0, 60, userWriteVersion, meterRegistry);
+
+        cache.get(List.of(1), this::query);
+        cache.get(List.of(1), this::query);
+
+        assertEquals(2, queries.get());
+        assertTrue(meterRegistry.find("cache.gets").meters().isEmpty());
+    }
+
+    private ReportResponseDto query() {
+        return new ReportResponseDto(List.of(), 1, 10, (long) queries.incrementAndGet(), false);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "user.report").tag("result", result).functionCounter().count();
+    }
+}
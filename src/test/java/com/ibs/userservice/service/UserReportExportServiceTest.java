@@ -0,0 +1,198 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.ReportExportStatusDTO;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.enums.ExportJobStatus;
+import com.ibs.userservice.repository.UserReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserReportExportServiceTest {
+
+    @Mock
+    private UserReportRepository userReportRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserReportExportService userReportExportService;
+
+    private final Role hr = new Role(2, "HR", null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(roleRegistry.findByName("HR")).thenReturn(Optional.of(hr));
+        userReportExportService = new UserReportExportService(userReportRepository, roleRegistry, transactionManager, 1, 1, 3, 4, 32, 60, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userReportExportService.shutdown();
+    }
+
+    @Test
+    void startExport_shouldScanRangesAndJoinThemInIdOrder() throws Exception {
+        List<UserResponseDTO> users = IntStream.of(3, 4, 7, 10, 11, 15, 20, 21, 22, 30).mapToObj(UserReportExportServiceTest::user).toList();
+        givenUsers(users);
+
+        ReportExportStatusDTO status = awaitFinished(userReportExportService.startExport("HR", null, null, false).getJobId());
+
+        assertEquals(ExportJobStatus.COMPLETED, status.getStatus());
+        assertEquals(3, status.getPartitions());
+        assertEquals(3, status.getPartitionsCompleted());
+        assertEquals(10, status.getRowsWritten());
+        assertEquals("/api/v1/users/report/exports/" + status.getJobId() + "/file", status.getDownloadUrl());
+
+        List<String> lines = Files.readAllLines(userReportExportService.getFile(status.getJobId()).orElseThrow());
+        assertTrue(lines.getFirst().startsWith("userId,"));
+        assertEquals(List.of("3", "4", "7", "10", "11", "15", "20", "21", "22", "30"),
+                lines.stream().skip(1).map(line -> line.substring(0, line.indexOf(','))).toList());
+        verify(userReportRepository, times(3)).streamResponses(eq(hr), isNull(), isNull(), anyInt(), anyInt());
+    }
+
+    @Test
+    void startExport_shouldGzipOutput() throws Exception {
+        givenUsers(List.of(user(1), user(2)));
+
+        ReportExportStatusDTO status = awaitFinished(userReportExportService.startExport("HR", null, null, true).getJobId());
+
+        Path file = userReportExportService.getFile(status.getJobId()).orElseThrow();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(3, new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n").length);
+        }
+    }
+
+    @Test
+    void startExport_shouldWriteHeaderOnlyWhenNothingMatches() throws Exception {
+        givenUsers(List.of());
+
+        ReportExportStatusDTO status = awaitFinished(userReportExportService.startExport("HR", null, null, false).getJobId());
+
+        assertEquals(ExportJobStatus.COMPLETED, status.getStatus());
+        assertEquals(0, status.getPartitions());
+        assertEquals(1, Files.readAllLines(userReportExportService.getFile(status.getJobId()).orElseThrow()).size());
+        verify(userReportRepository, never()).streamResponses(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void startExport_shouldFailJobWhenARangeFails() throws Exception {
+        givenUsers(List.of(user(1), user(100)));
+        when(userReportRepository.streamResponses(any(), any(), any(), anyInt(), anyInt()))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        ReportExportStatusDTO status = awaitFinished(userReportExportService.startExport("HR", null, null, false).getJobId());
+
+        assertEquals(ExportJobStatus.FAILED, status.getStatus());
+        assertEquals("connection lost", status.getMessage());
+        assertNull(status.getDownloadUrl());
+        assertTrue(userReportExportService.getFile(status.getJobId()).isEmpty());
+    }
+
+    @Test
+    void startExport_shouldDropOlderFilesBeyondRetainedSize() throws Exception {
+        // About 600 KB per export, so two of them do not fit in 1 MB
+        givenUsers(IntStream.rangeClosed(1, 600).mapToObj(id -> user(id, "x".repeat(1000))).toList());
+
+        String first = awaitFinished(userReportExportService.startExport("HR", null, null, false).getJobId()).getJobId();
+        Path firstFile = userReportExportService.getFile(first).orElseThrow();
+        String second = awaitFinished(userReportExportService.startExport("HR", null, null, false).getJobId()).getJobId();
+        Path secondFile = userReportExportService.getFile(second).orElseThrow();
+
+        for (int i = 0; i < 200 && Files.exists(firstFile) && Files.exists(secondFile); i++) {
+            userReportExportService.cleanUp();
+            Thread.sleep(25);
+        }
+        assertNotEquals(Files.exists(firstFile), Files.exists(secondFile));
+    }
+
+    @Test
+    void startExport_shouldFailWhenFileIsLargerThanRetainedSize() throws Exception {
+        userReportExportService.shutdown();
+        userReportExportService = new UserReportExportService(userReportRepository, roleRegistry, transactionManager, 1, 1, 3, 4, 32, 60, 0);
+        givenUsers(List.of(user(1), user(2)));
+
+        ReportExportStatusDTO status = awaitFinished(userReportExportService.startExport("HR", null, null, false).getJobId());
+
+        assertEquals(ExportJobStatus.FAILED, status.getStatus());
+        assertTrue(status.getMessage().contains("larger than"));
+        assertTrue(userReportExportService.getFile(status.getJobId()).isEmpty());
+    }
+
+    @Test
+    void startExport_shouldRejectUnknownRole() {
+        when(roleRegistry.findByName("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> userReportExportService.startExport("NOPE", null, null, false));
+        verifyNoInteractions(userReportRepository);
+    }
+
+    @Test
+    void partition_shouldCoverIdSpanWithoutGapsOrOverlap() {
+        assertEquals(List.of(new UserReportExportService.Range(1, 4), new UserReportExportService.Range(5, 8), new UserReportExportService.Range(9, 10)),
+                UserReportExportService.partition(1, 10, 10, 4, 32));
+        assertEquals(List.of(new UserReportExportService.Range(5, 5)), UserReportExportService.partition(5, 5, 1, 4, 32));
+        assertEquals(2, UserReportExportService.partition(1, 1_000_000, 1_000_000, 10, 2).size());
+    }
+
+    @Test
+    void getStatus_shouldBeEmptyForUnknownJob() {
+        assertTrue(userReportExportService.getStatus("missing").isEmpty());
+        assertTrue(userReportExportService.getFile("missing").isEmpty());
+    }
+
+    private void givenUsers(List<UserResponseDTO> users) {
+        when(userReportRepository.findIdRange(hr, null, null)).thenReturn(new UserReportRepository.IdRange(
+                users.isEmpty() ? null : users.getFirst().getUserId(),
+                users.isEmpty() ? null : users.getLast().getUserId(),
+                users.size()));
+        when(userReportRepository.streamResponses(eq(hr), isNull(), isNull(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int fromId = invocation.getArgument(3);
+            int toId = invocation.getArgument(4);
+            return users.stream().filter(u -> u.getUserId() >= fromId && u.getUserId() <= toId);
+        });
+    }
+
+    private ReportExportStatusDTO awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ReportExportStatusDTO status = userReportExportService.getStatus(jobId).orElseThrow();
+            if (status.getStatus() == ExportJobStatus.COMPLETED || status.getStatus() == ExportJobStatus.FAILED) {
+                return status;
+            }
+            Thread.sleep(25);
+        }
+        fail("Export did not finish");
+        return null;
+    }
+
+    private static UserResponseDTO user(int id) {
+        return user(id, null);
+    }
+
+    private static UserResponseDTO user(int id, String fullName) {
+        return UserResponseDTO.builder().userId(id).userName("user" + id).email("user" + id + "@example.com").fullName(fullName).roleId(2).roleName("HR").build();
+    }
+}
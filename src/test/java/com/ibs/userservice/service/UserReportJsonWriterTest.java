@@ -0,0 +1,59 @@
+package com.ibs.userservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
+import com.ibs.userservice.enums.ReportLayout;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserReportJsonWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    private final UserReportJsonWriter writer = new UserReportJsonWriter(objectMapper);
+
+    private final ReportResponseDto report = new ReportResponseDto(List.of(
+            new UserReportRow(1, "John Doe", "john@example.com", "9876543210", "ADMIN", true, LocalDateTime.of(2025, 1, 2, 10, 30, 15)),
+            new UserReportRow(2, null, "jane@example.com", "9876543211", "HR", false, null)
+    ), 1, 2, null, true);
+
+    @Test
+    void write_rowsShouldMatchSerializedReport() throws Exception {
+        JsonNode written = write(ReportLayout.ROWS);
+
+        assertEquals(objectMapper.valueToTree(report), written);
+        assertEquals("2025-01-02T10:30:15", written.at("/data/0/createdAt").asText());
+        assertTrue(written.get("total").isNull());
+    }
+
+    @Test
+    void write_columnarShouldSendColumnNamesOnce() throws Exception {
+        JsonNode written = write(ReportLayout.COLUMNAR);
+
+        assertEquals(objectMapper.valueToTree(UserReportJsonWriter.COLUMNS), written.get("columns"));
+        JsonNode first = written.at("/data/0");
+        assertTrue(first.isArray());
+        assertEquals(1, first.get(0).asInt());
+        assertEquals("ADMIN", first.get(4).asText());
+        assertEquals("2025-01-02T10:30:15", first.get(6).asText());
+        assertTrue(written.at("/data/1/1").isNull());
+        assertEquals(2, written.get("size").asInt());
+        assertTrue(written.get("hasNext").asBoolean());
+    }
+
+    private JsonNode write(ReportLayout layout) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(report, layout, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
@@ -1,63 +1,76 @@
 package com.ibs.userservice.service;
 
 import com.ibs.userservice.dtos.responseDtos.ReportResponseDto;
+import com.ibs.userservice.dtos.responseDtos.UserReportRow;
 import com.ibs.userservice.entity.Role;
-import com.ibs.userservice.entity.User;
-import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.repository.UserReportRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.data.domain.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class UserReportServiceTest {
 
     @Mock
-    private UserRepository userRepository;
+    private UserReportRepository userReportRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Spy
+    private UserCountCache userCountCache = new UserCountCache(100, 60, new SimpleMeterRegistry());
+
+    private final UserWriteVersion userWriteVersion = new UserWriteVersion();
+
+    @Spy
+    private UserReportCache userReportCache = new UserReportCache(100, 60, userWriteVersion, new SimpleMeterRegistry());
 
     @InjectMocks
     private UserReportService userReportService;
 
-    private User sampleUser;
+    private Role role;
+
+    private UserReportRow sampleRow;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        Role role = new Role();
-        role.setRoleName("ADMIN");
-
-        sampleUser = new User();
-        sampleUser.setUserId(1);
-        sampleUser.setFullName("John Doe");
-        sampleUser.setEmail("john@example.com");
-        sampleUser.setUserPhone("9876543210");
-        sampleUser.setRole(role);
-        sampleUser.setActive(true);
-        sampleUser.setCreatedAt(LocalDateTime.now());
+        role = new Role(1, "ADMIN", null);
+        when(roleRegistry.findByName("ADMIN")).thenReturn(Optional.of(role));
+
+        sampleRow = new UserReportRow(1, "John Doe", "john@example.com", "9876543210", "ADMIN", true, LocalDateTime.now());
     }
 
     @Test
     void testGetUserReport_Success() {
         // Given
-        List<User> users = List.of(sampleUser);
-        Page<User> userPage = new PageImpl<>(users);
+        Page<UserReportRow> rowPage = new PageImpl<>(List.of(sampleRow));
 
-        when(userRepository.findByRoleAndDateRange(
-                anyString(),
+        when(userReportRepository.findRows(
+                any(Role.class),
                 any(LocalDateTime.class),
                 any(LocalDateTime.class),
                 any(Pageable.class)
-        )).thenReturn(userPage);
+        )).thenReturn(rowPage);
 
         // When
         ReportResponseDto response = userReportService.getUserReport(
@@ -67,27 +80,27 @@ class UserReportServiceTest {
                 1,
                 10,
                 "fullName",
-                "ASC"
+                "ASC",
+                CountMode.EXACT
         );
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getData()).hasSize(1);
 
-        Map<String, Object> userMap = response.getData().get(0);
-        assertThat(userMap)
-                .containsEntry("fullName", "John Doe")
-                .containsEntry("email", "john@example.com")
-                .containsEntry("role", "ADMIN")
-                .containsEntry("active", true);
+        UserReportRow row = response.getData().get(0);
+        assertThat(row.getFullName()).isEqualTo("John Doe");
+        assertThat(row.getEmail()).isEqualTo("john@example.com");
+        assertThat(row.getRole()).isEqualTo("ADMIN");
+        assertThat(row.isActive()).isTrue();
 
         assertThat(response.getTotal()).isEqualTo(1);
     }
 
     @Test
     void testGetUserReport_WithException() {
-        when(userRepository.findByRoleAndDateRange(
-                anyString(),
+        when(userReportRepository.findRows(
+                any(Role.class),
                 any(LocalDateTime.class),
                 any(LocalDateTime.class),
                 any(Pageable.class)
@@ -98,32 +111,123 @@ class UserReportServiceTest {
                         "ADMIN",
                         LocalDateTime.now().minusDays(7),
                         LocalDateTime.now(),
-                        1, 10, "email", "DESC")
+                        1, 10, "email", "DESC", CountMode.EXACT)
         );
     }
 
     @Test
     void testGetUserReport_WithoutSortField() {
-        List<User> users = List.of(sampleUser);
-        Page<User> userPage = new PageImpl<>(users);
+        Page<UserReportRow> rowPage = new PageImpl<>(List.of(sampleRow));
 
-        when(userRepository.findByRoleAndDateRange(
-                anyString(),
+        when(userReportRepository.findRows(
+                any(Role.class),
                 any(LocalDateTime.class),
                 any(LocalDateTime.class),
                 any(Pageable.class)
-        )).thenReturn(userPage);
+        )).thenReturn(rowPage);
 
         ReportResponseDto response = userReportService.getUserReport(
                 "ADMIN",
                 LocalDateTime.now().minusDays(10),
                 LocalDateTime.now(),
-                1, 5, "", ""
+                1, 5, "", "", CountMode.EXACT
         );
 
         assertThat(response.getData()).hasSize(1);
-        assertThat(response.getData().getFirst())
-                .containsEntry("fullName", "John Doe")
-                .containsEntry("email", "john@example.com");
+        assertThat(response.getData().getFirst()).isEqualTo(sampleRow);
+    }
+
+    @Test
+    void testGetUserReport_UnknownRoleSkipsQuery() {
+        ReportResponseDto response = userReportService.getUserReport(
+                "UNKNOWN", null, null, 1, 10, null, null, CountMode.EXACT);
+
+        assertThat(response.getData()).isEmpty();
+        assertThat(response.getTotal()).isZero();
+        verifyNoInteractions(userReportRepository);
+    }
+
+    @Test
+    void testGetUserReport_NoCountReturnsSliceWithoutTotal() {
+        when(userReportRepository.findRowSlice(any(Role.class), any(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(sampleRow), PageRequest.of(0, 1), true));
+
+        ReportResponseDto response = userReportService.getUserReport("ADMIN", null, null, 1, 1, null, null, CountMode.NONE);
+
+        assertThat(response.getData()).hasSize(1);
+        assertThat(response.getTotal()).isNull();
+        assertThat(response.isHasNext()).isTrue();
+        verify(userReportRepository, never()).findRows(any(), any(), any(), any());
+        verify(userReportRepository, never()).count(any(), any(), any());
+    }
+
+    @Test
+    void testGetUserReport_CachedCountIsReusedUntilUsersChange() {
+        when(userReportRepository.findRowSlice(any(Role.class), any(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(sampleRow), PageRequest.of(0, 1), true));
+        when(userReportRepository.count(any(Role.class), any(), any())).thenReturn(42L);
+
+        ReportResponseDto first = userReportService.getUserReport("ADMIN", null, null, 1, 1, null, null, CountMode.CACHED);
+        ReportResponseDto second = userReportService.getUserReport("ADMIN", null, null, 1, 1, null, null, CountMode.CACHED);
+        UserChangedEvent created = UserChangedEvent.created(2);
+        userCountCache.onUserChanged(created);
+        userWriteVersion.onUserChanged(created);
+        userReportService.getUserReport("ADMIN", null, null, 1, 1, null, null, CountMode.CACHED);
+
+        assertThat(first.getTotal()).isEqualTo(42L);
+        assertThat(second.getTotal()).isEqualTo(42L);
+        verify(userReportRepository, times(2)).count(any(), any(), any());
+    }
+
+    @Test
+    void testGetUserReport_CachedCountSkipsQueryOnLastPage() {
+        when(userReportRepository.findRowSlice(any(Role.class), any(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(sampleRow), PageRequest.of(2, 10), false));
+
+        ReportResponseDto response = userReportService.getUserReport("ADMIN", null, null, 3, 10, null, null, CountMode.CACHED);
+
+        assertThat(response.getTotal()).isEqualTo(21L);
+        assertThat(response.isHasNext()).isFalse();
+        verify(userReportRepository, never()).count(any(), any(), any());
+    }
+
+    @Test
+    void testGetUserReport_RepeatedRequestIsServedFromCache() {
+        when(roleRegistry.findByName("admin")).thenReturn(Optional.of(role));
+        when(userReportRepository.findRows(any(Role.class), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(sampleRow)));
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        ReportResponseDto first = userReportService.getUserReport("ADMIN", start, null, 1, 10, "email", "ASC", CountMode.EXACT);
+        ReportResponseDto second = userReportService.getUserReport("admin", start, null, 1, 10, "email", "asc", CountMode.EXACT);
+        userReportService.getUserReport("ADMIN", start, null, 1, 10, "email", "DESC", CountMode.EXACT);
+
+        assertThat(second).isSameAs(first);
+        verify(userReportRepository, times(2)).findRows(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetUserReport_UserChangeOutdatesCachedPages() {
+        when(userReportRepository.findRows(any(Role.class), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(sampleRow)));
+
+        userReportService.getUserReport("ADMIN", null, null, 1, 10, null, null, CountMode.EXACT);
+        userWriteVersion.onUserChanged(UserChangedEvent.updated(1));
+        userReportService.getUserReport("ADMIN", null, null, 1, 10, null, null, CountMode.EXACT);
+
+        verify(userReportRepository, times(2)).findRows(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetUserReport_FailureIsNotCached() {
+        when(userReportRepository.findRows(any(Role.class), any(), any(), any(Pageable.class)))
+                .thenThrow(new RuntimeException("DB error"))
+                .thenReturn(new PageImpl<>(List.of(sampleRow)));
+
+        assertThrows(RuntimeException.class, () ->
+                userReportService.getUserReport("ADMIN", null, null, 1, 10, null, null, CountMode.EXACT));
+        ReportResponseDto response = userReportService.getUserReport("ADMIN", null, null, 1, 10, null, null, CountMode.EXACT);
+
+        assertThat(response.getData()).hasSize(1);
     }
 }
@@ -0,0 +1,90 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.dtos.responseDtos.UserScrollResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserScrollServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @InjectMocks
+    private UserScrollService userScrollService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getUsers_shouldStartFromTheBeginningAndReturnCursorOfLastUser() {
+        List<UserResponseDTO> users = List.of(UserResponseDTO.builder().userId(4).build(), UserResponseDTO.builder().userId(9).build());
+        when(userRepository.findResponsesAfter(0, PageRequest.ofSize(2))).thenReturn(new SliceImpl<>(users, PageRequest.ofSize(2), true));
+
+        UserScrollResponseDTO response = userScrollService.getUsers(null, 2);
+
+        assertEquals(2, response.getSize());
+        assertTrue(response.isHasNext());
+        assertEquals(9, UserScrollService.decode(response.getNextCursor()));
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void getUsers_shouldContinueAfterCursorAndEndWithoutNextCursor() {
+        List<UserResponseDTO> users = List.of(UserResponseDTO.builder().userId(12).build());
+        when(userRepository.findResponsesAfter(9, PageRequest.ofSize(2))).thenReturn(new SliceImpl<>(users, PageRequest.ofSize(2), false));
+
+        UserScrollResponseDTO response = userScrollService.getUsers(UserScrollService.encode(9), 2);
+
+        assertFalse(response.isHasNext());
+        assertNull(response.getNextCursor());
+        assertEquals(12, response.getContent().getFirst().getUserId());
+    }
+
+    @Test
+    void getUsers_shouldRejectInvalidCursorAndSize() {
+        assertThrows(IllegalArgumentException.class, () -> userScrollService.getUsers("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> userScrollService.getUsers(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> userScrollService.getUsers(null, UserScrollService.MAX_SIZE + 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersByRole_shouldSeekWithinRole() {
+        Role hr = new Role(2, "HR", null);
+        when(roleRegistry.findByName("hr")).thenReturn(Optional.of(hr));
+        when(userRepository.findResponsesByRoleAfter(eq(hr), eq(5), any())).thenReturn(new SliceImpl<>(List.of()));
+
+        UserScrollResponseDTO response = userScrollService.getUsersByRole("hr", UserScrollService.encode(5), 10);
+
+        assertEquals(0, response.getSize());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void getUsersByRole_shouldThrow_whenRoleUnknown() {
+        when(roleRegistry.findByName("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> userScrollService.getUsersByRole("NOPE", null, 10));
+        verifyNoInteractions(userRepository);
+    }
+}
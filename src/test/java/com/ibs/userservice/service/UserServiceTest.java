@@ -1,14 +1,18 @@
 package com.ibs.userservice.service;
 
 import com.ibs.userservice.dtos.requestDtos.UserRequestDTO;
+import com.ibs.userservice.dtos.responseDtos.BulkUserDeleteResponseDTO;
 import com.ibs.userservice.dtos.responseDtos.SlotResponseDto;
 import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
 import com.ibs.userservice.entity.Role;
 import com.ibs.userservice.entity.User;
+import com.ibs.userservice.enums.CountMode;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.exception.ResourceNotFoundException;
 import com.ibs.userservice.feign.SlotClient;
 import com.ibs.userservice.mapper.UserMapper;
-import com.ibs.userservice.repository.RoleRepository;
 import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.repository.UserStatsRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,10 +20,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -32,7 +41,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -40,11 +49,22 @@ class UserServiceTest {
     @Mock
     private SlotClient slotClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Spy
+    private UserCountCache userCountCache = new UserCountCache(100, 60, new SimpleMeterRegistry());
+
     @InjectMocks
     private UserService userService;
 
     private MockedStatic<UserMapper> mockedUserMapper;
 
+    private final Role panelRole = new Role(3, "PANEL", null);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -78,7 +98,7 @@ class UserServiceTest {
         savedUser.setUserId(10);
         savedUser.setUserName("john");
 
-        when(roleRepository.findById(1)).thenReturn(Optional.of(role));
+        when(roleRegistry.getById(1)).thenReturn(role);
         when(passwordEncoder.encode("pass123")).thenReturn("encodedPass");
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
 
@@ -99,7 +119,7 @@ class UserServiceTest {
         verify(userRepository).save(any(User.class));
     }
     @Test
-    void createUser_shouldThrowRuntimeException_whenRoleRepositoryFails() {
+    void createUser_shouldThrowRuntimeException_whenRoleLookupFails() {
         // Arrange
         UserRequestDTO request = new UserRequestDTO();
         request.setUserName("john");
@@ -107,37 +127,34 @@ class UserServiceTest {
         request.setRoleId(1);
 
         // Simulate exception during role fetch
-        when(roleRepository.findById(1)).thenThrow(new RuntimeException("Database error"));
+        when(roleRegistry.getById(1)).thenThrow(new RuntimeException("Role not found"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.createUser(request));
 
         // Verify exception is rethrown from catch block
-        assertTrue(exception.getMessage().contains("Database error"));
-        verify(roleRepository, times(1)).findById(1);
+        assertTrue(exception.getMessage().contains("Role not found"));
+        verify(roleRegistry, times(1)).getById(1);
     }
 
     // Get all users (paged)
     @Test
     void getAllUsers_shouldReturnPagedUsers() {
         Pageable pageable = PageRequest.of(0, 10);
-        User user1 = new User();
-        user1.setUserName("john");
-        Page<User> userPage = new PageImpl<>(List.of(user1));
+        Page<UserResponseDTO> userPage = new PageImpl<>(List.of(UserResponseDTO.builder()
+                .userId(10)
+                .fullName("John")
+                .roleName("ADMIN")
+                .userName("john")
+                .email("john@example.com").build()));
 
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(10)
-                        .fullName("John")
-                        .roleName("ADMIN")
-                        .userName("john")
-                        .email("john@example.com").build());
+        when(userRepository.findAllResponses(pageable)).thenReturn(userPage);
 
-        Page<UserResponseDTO> result = userService.getAllUsers(pageable);
+        Page<UserResponseDTO> result = (Page<UserResponseDTO>) userService.getAllUsers(pageable, CountMode.EXACT);
 
         assertEquals(1, result.getTotalElements());
         assertEquals("john", result.getContent().getFirst().getUserName());
+        verify(userRepository, never()).findAll(pageable);
     }
     @Test
     void getUserById_shouldThrowRuntimeException_whenRepositoryFails() {
@@ -145,35 +162,46 @@ class UserServiceTest {
         int userId = 1;
 
         // Simulate repository throwing an unexpected exception
-        when(userRepository.findById(userId)).thenThrow(new RuntimeException("Database error"));
+        when(userRepository.findResponseById(userId)).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.getUserById(userId));
 
         // Verify
         assertTrue(exception.getMessage().contains("Database error"));
-        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, times(1)).findResponseById(userId);
     }
 
     // Get user by ID
     @Test
     void getUserById_shouldReturnUser() {
+        when(userRepository.findResponseById(1)).thenReturn(Optional.of(UserResponseDTO.builder()
+                .userId(1)
+                .fullName("John")
+                .roleName("ADMIN")
+                .userName("john")
+                .email("john@example.com").build()));
+
+        UserResponseDTO dto = userService.getUserById(1);
+        assertEquals("john", dto.getUserName());
+        verify(userRepository).findResponseById(1);
+        verify(userRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void getUserById_shouldReadCachedEntity_whenSecondLevelCacheIsOn() {
+        ReflectionTestUtils.setField(userService, "secondLevelCache", true);
         User user = new User();
         user.setUserId(1);
         user.setUserName("john");
-
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(10)
-                        .fullName("John")
-                        .roleName("ADMIN")
-                        .userName("john")
-                        .email("john@example.com").build());
+        mockedUserMapper.when(() -> UserMapper.toResponseDTO(user))
+                .thenReturn(UserResponseDTO.builder().userId(1).userName("john").build());
 
         UserResponseDTO dto = userService.getUserById(1);
+
         assertEquals("john", dto.getUserName());
-        verify(userRepository).findById(1);
+        verify(userRepository, never()).findResponseById(anyInt());
     }
 
     // Update user
@@ -192,13 +220,14 @@ class UserServiceTest {
         User existing = new User();
         existing.setUserId(1);
         existing.setUserName("oldUser");
+        existing.setRole(new Role(2, "HR", null));
 
         User updated = new User();
         updated.setUserId(1);
         updated.setUserName("updated");
 
         when(userRepository.findById(1)).thenReturn(Optional.of(existing));
-        when(roleRepository.findById(1)).thenReturn(Optional.of(role));
+        when(roleRegistry.getById(1)).thenReturn(role);
         when(passwordEncoder.encode("newpass")).thenReturn("encoded");
         when(userRepository.save(existing)).thenReturn(updated);
 
@@ -214,6 +243,29 @@ class UserServiceTest {
 
         assertEquals("updated", dto.getUserName());
         verify(userRepository).save(existing);
+        verify(userStatsService).recordUpdated(updated, 2, true);
+        verify(eventPublisher).publishEvent(UserChangedEvent.updated(1));
+    }
+
+    @Test
+    void updateUser_shouldPublishDeactivated_whenActiveUserIsTurnedOff() {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setUserName("john");
+        request.setRoleId(1);
+        request.setActive(false);
+
+        User existing = new User();
+        existing.setUserId(1);
+        existing.setRole(new Role(1, "HR", null));
+
+        when(userRepository.findById(1)).thenReturn(Optional.of(existing));
+        when(roleRegistry.getById(1)).thenReturn(existing.getRole());
+        when(userRepository.save(existing)).thenReturn(existing);
+
+        userService.updateUser(1, request);
+
+        assertFalse(existing.isActive());
+        verify(eventPublisher).publishEvent(UserChangedEvent.deactivated(1));
     }
     @Test
     void updateUser_shouldThrowRuntimeException_whenRepositoryFails() {
@@ -237,41 +289,64 @@ class UserServiceTest {
 
     // Delete user
     @Test
-    void deleteUser_shouldDeleteWhenExists() {
-        when(userRepository.existsById(1)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1);
+    void deleteUser_shouldDeleteWithSingleStatement() {
+        List<UserStatsRepository.DailyStats> counts = List.of(new UserStatsRepository.DailyStats(1, LocalDate.of(2025, 1, 1), 1, 1));
+        when(userStatsService.countsOf(List.of(1))).thenReturn(counts);
+        when(userRepository.deleteAllByUserIdIn(List.of(1))).thenReturn(1);
 
         assertDoesNotThrow(() -> userService.deleteUser(1));
-        verify(userRepository).deleteById(1);
+        verify(userRepository).deleteAllByUserIdIn(List.of(1));
+        verify(userStatsService).recordRemoved(counts, false);
+        verify(userRepository, never()).existsById(anyInt());
+        verify(eventPublisher).publishEvent(UserChangedEvent.deleted(1));
     }
     @Test
-    void deleteUser_shouldThrowRuntimeException_whenUserNotFound() {
-        // Arrange
-        int userId = 1;
-        when(userRepository.existsById(userId)).thenReturn(false);
+    void deleteUser_shouldThrowNotFound_whenNoRowDeleted() {
+        when(userRepository.deleteAllByUserIdIn(List.of(1))).thenReturn(0);
 
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.deleteUser(userId));
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(1));
 
-        // Verify
-        assertTrue(exception.getMessage().contains("User not found"));
-        verify(userRepository, times(1)).existsById(userId);
-        verify(userRepository, never()).deleteById(anyInt());
+        assertEquals("User not found", exception.getMessage());
+        verify(userStatsService, never()).recordRemoved(any(), anyBoolean());
+        verify(eventPublisher, never()).publishEvent(any());
     }
     @Test
-    void deleteUser_shouldThrowRuntimeException_whenRepositoryThrows() {
-        // Arrange
-        int userId = 1;
-        when(userRepository.existsById(userId)).thenReturn(true);
-        doThrow(new RuntimeException("DB delete failed")).when(userRepository).deleteById(userId);
+    void deleteUser_shouldPropagateRepositoryFailure() {
+        when(userRepository.deleteAllByUserIdIn(List.of(1))).thenThrow(new RuntimeException("DB delete failed"));
 
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.deleteUser(userId));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.deleteUser(1));
 
-        // Verify
         assertTrue(exception.getMessage().contains("DB delete failed"));
-        verify(userRepository, times(1)).existsById(userId);
-        verify(userRepository, times(1)).deleteById(userId);
+    }
+    @Test
+    void deleteUser_shouldDeactivate_whenSoftDeleteEnabled() {
+        ReflectionTestUtils.setField(userService, "softDelete", true);
+        when(userRepository.deactivateAllByUserIdIn(List.of(1))).thenReturn(1);
+
+        userService.deleteUser(1);
+
+        verify(userRepository, never()).deleteAllByUserIdIn(any());
+        verify(userStatsService).recordRemoved(anyList(), eq(true));
+        verify(eventPublisher).publishEvent(UserChangedEvent.deleted(1));
+    }
+    @Test
+    void deleteUsers_shouldDeleteDistinctIdsInOneStatement() {
+        ReflectionTestUtils.setField(userService, "maxBulkRows", 10);
+        when(userRepository.deleteAllByUserIdIn(Set.of(1, 2, 3))).thenReturn(2);
+
+        BulkUserDeleteResponseDTO response = userService.deleteUsers(List.of(1, 2, 2, 3));
+
+        assertEquals(3, response.getRequested());
+        assertEquals(2, response.getDeleted());
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.DELETED, Set.of(1, 2, 3)));
+    }
+    @Test
+    void deleteUsers_shouldRejectEmptyOrOversizedRequests() {
+        ReflectionTestUtils.setField(userService, "maxBulkRows", 2);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteUsers(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteUsers(List.of(1, 2, 3)));
+        verifyNoInteractions(userRepository);
     }
 
     // Get users by role (paged)
@@ -280,26 +355,20 @@ class UserServiceTest {
         Role role = new Role();
         role.setRoleName("HR");
 
-        User user = new User();
-        user.setUserName("hrUser");
+        Page<UserResponseDTO> userPage = new PageImpl<>(List.of(UserResponseDTO.builder()
+                .userId(1)
+                .fullName("hrUser")
+                .roleName("HR")
+                .userName("hrUser")
+                .email("hrUser@example.com").build()));
 
-        Page<User> userPage = new PageImpl<>(List.of(user));
+        when(roleRegistry.findByName("HR")).thenReturn(Optional.of(role));
+        when(userRepository.findResponsesByRole(role, PageRequest.of(0, 10))).thenReturn(userPage);
 
-        when(roleRepository.findByRoleNameIgnoreCase("HR")).thenReturn(Optional.of(role));
-        when(userRepository.findByRole(role, PageRequest.of(0, 10))).thenReturn(userPage);
-
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(1)
-                        .fullName("hrUser")
-                        .roleName("HR")
-                        .userName("hrUser")
-                        .email("hrUser@example.com").build());
-
-        Page<UserResponseDTO> result = userService.getUsersByRole("HR", 0, 10);
+        Page<UserResponseDTO> result = (Page<UserResponseDTO>) userService.getUsersByRole("HR", 0, 10, CountMode.EXACT);
 
         assertEquals(1, result.getTotalElements());
-        verify(userRepository).findByRole(role, PageRequest.of(0, 10));
+        verify(userRepository).findResponsesByRole(role, PageRequest.of(0, 10));
     }
     @Test
     void getUsersByRole_shouldThrowRuntimeException_whenRepositoryFails() {
@@ -309,16 +378,16 @@ class UserServiceTest {
         int size = 5;
 
         // Simulate an exception when trying to fetch the role
-        when(roleRepository.findByRoleNameIgnoreCase(roleName))
+        when(roleRegistry.findByName(roleName))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> userService.getUsersByRole(roleName, page, size));
+                () -> userService.getUsersByRole(roleName, page, size, CountMode.EXACT));
 
         // Verify behavior
         assertTrue(exception.getMessage().contains("Database connection failed"));
-        verify(roleRepository, times(1)).findByRoleNameIgnoreCase(roleName);
+        verify(roleRegistry, times(1)).findByName(roleName);
     }
     @Test
     void getUsersByRole_shouldThrowRuntimeException_whenRoleNotFound() {
@@ -327,30 +396,26 @@ class UserServiceTest {
         int page = 0;
         int size = 5;
 
-        when(roleRepository.findByRoleNameIgnoreCase(roleName)).thenReturn(Optional.empty());
+        when(roleRegistry.findByName(roleName)).thenReturn(Optional.empty());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> userService.getUsersByRole(roleName, page, size));
+                () -> userService.getUsersByRole(roleName, page, size, CountMode.EXACT));
 
         assertTrue(exception.getMessage().contains("Invalid rome"));
-        verify(roleRepository).findByRoleNameIgnoreCase(roleName);
+        verify(roleRegistry).findByName(roleName);
     }
 
     // Get all users by role (non-paged)
     @Test
     void getAllUsersByRole_shouldReturnList() {
-        User user = new User();
-        user.setUserName("panel");
-
-        when(userRepository.findByRole_RoleNameIgnoreCase("PANEL")).thenReturn(List.of(user));
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(1)
-                        .fullName("panel")
-                        .roleName("PANEL")
-                        .userName("panel")
-                        .email("panel@example.com").build());
+        when(roleRegistry.findByName("PANEL")).thenReturn(Optional.of(panelRole));
+        when(userRepository.findResponsesByRole(panelRole)).thenReturn(List.of(UserResponseDTO.builder()
+                .userId(1)
+                .fullName("panel")
+                .roleName("PANEL")
+                .userName("panel")
+                .email("panel@example.com").build()));
 
         List<UserResponseDTO> result = userService.getAllUsersByRole("PANEL");
 
@@ -367,19 +432,13 @@ class UserServiceTest {
         SlotResponseDto slot = new SlotResponseDto();
         slot.setPanelistId(5);
 
-        User user = new User();
-        user.setUserId(5);
-        user.setUserName("panelUser");
-
         when(slotClient.getAvailableSlots(start, end)).thenReturn(List.of(slot));
-        when(userRepository.findAllById(Set.of(5))).thenReturn(List.of(user));
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(1)
-                        .fullName("panel")
-                        .roleName("PANEL")
-                        .userName("panelUser")
-                        .email("panel@example.com").build());
+        when(userRepository.findResponsesByUserIdIn(Set.of(5))).thenReturn(List.of(UserResponseDTO.builder()
+                .userId(5)
+                .fullName("panel")
+                .roleName("PANEL")
+                .userName("panelUser")
+                .email("panel@example.com").build()));
 
         List<UserResponseDTO> result = userService.getUsersAsPanelWithSameSlot(start, end);
 
@@ -401,7 +460,7 @@ class UserServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
         verify(slotClient).getAvailableSlots(start, end);
-        verify(userRepository, never()).findAllById(anySet());
+        verify(userRepository, never()).findResponsesByUserIdIn(anySet());
     }
     @Test
     void getUsersAsPanelWithSameSlot_shouldReturnEmptyList_whenPanelistIdsEmpty() {
@@ -421,7 +480,7 @@ class UserServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
         verify(slotClient).getAvailableSlots(start, end);
-        verify(userRepository, never()).findAllById(anySet());
+        verify(userRepository, never()).findResponsesByUserIdIn(anySet());
     }
     @Test
     void getUsersAsPanelWithSameSlot_shouldThrowRuntimeException_whenFeignFails() {
@@ -440,45 +499,22 @@ class UserServiceTest {
         verify(slotClient).getAvailableSlots(start, end);
     }
 
-    // Get all users
-    @Test
-    void getAllUsers_shouldReturnList() {
-        User user = new User();
-        user.setUserName("john");
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(1)
-                        .fullName("panel")
-                        .roleName("PANEL")
-                        .userName("panel")
-                        .email("panel@example.com").build());
-
-        List<UserResponseDTO> result = userService.getAllUsers();
-
-        assertEquals(1, result.size());
-        verify(userRepository).findAll();
-    }
-
     // Get pending panelists
     @Test
     void getPendingPanelists_shouldReturnFilteredList() {
-        User panel = new User();
-        panel.setUserId(10);
-        panel.setUserName("panelUser");
+        UserResponseDTO panel = UserResponseDTO.builder()
+                .userId(10)
+                .fullName("panel")
+                .roleName("PANEL")
+                .userName("panelUser")
+                .email("panel@example.com").build();
 
         SlotResponseDto slot = new SlotResponseDto();
         slot.setPanelistId(20); // different ID
 
-        when(userRepository.findByRole_RoleNameIgnoreCase("PANEL")).thenReturn(List.of(panel));
+        when(roleRegistry.findByName("PANEL")).thenReturn(Optional.of(panelRole));
+        when(userRepository.findResponsesByRole(panelRole)).thenReturn(List.of(panel));
         when(slotClient.getAllSlots()).thenReturn(List.of(slot));
-        mockedUserMapper.when(() -> UserMapper.toResponseDTO(any(User.class)))
-                .thenReturn(UserResponseDTO.builder()
-                        .userId(1)
-                        .fullName("panel")
-                        .roleName("PANEL")
-                        .userName("panelUser")
-                        .email("panel@example.com").build());
 
         List<UserResponseDTO> result = userService.getPendingPanelists();
 
@@ -488,12 +524,11 @@ class UserServiceTest {
     @Test
     void getPendingPanelists_shouldThrowRuntimeException_whenFeignFails() {
         // Arrange
-        User panelUser = new User();
-        panelUser.setUserId(10);
-        panelUser.setUserName("PanelUser");
+        UserResponseDTO panelUser = UserResponseDTO.builder().userId(10).userName("PanelUser").build();
 
         // Mock repository to return some panel users
-        when(userRepository.findByRole_RoleNameIgnoreCase("PANEL"))
+        when(roleRegistry.findByName("PANEL")).thenReturn(Optional.of(panelRole));
+        when(userRepository.findResponsesByRole(panelRole))
                 .thenReturn(List.of(panelUser));
 
         // Mock Feign client (slotClient) to throw exception
@@ -505,7 +540,7 @@ class UserServiceTest {
 
         // Verify behavior
         assertTrue(exception.getMessage().contains("Feign service unavailable"));
-        verify(userRepository, times(1)).findByRole_RoleNameIgnoreCase("PANEL");
+        verify(userRepository, times(1)).findResponsesByRole(panelRole);
         verify(slotClient, times(1)).getAllSlots();
     }
 }
@@ -0,0 +1,180 @@
+package com.ibs.userservice.service;
+
+import com.ibs.userservice.dtos.responseDtos.DailySignupsDTO;
+import com.ibs.userservice.dtos.responseDtos.RoleUserStatsDTO;
+import com.ibs.userservice.dtos.responseDtos.UserStatsSummaryDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.repository.UserStatsRepository;
+import com.ibs.userservice.repository.UserStatsRepository.DailyStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserStatsServiceTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 3, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2025, 3, 2);
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    private UserStatsService userStatsService;
+
+    private final Role admin = new Role(1, "ADMIN", null);
+    private final Role hr = new Role(2, "HR", null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(roleRegistry.getAll()).thenReturn(List.of(admin, hr));
+        when(userStatsRepository.findAll()).thenReturn(List.of(
+                new DailyStats(1, DAY_1, 3, 2),
+                new DailyStats(2, DAY_1, 1, 1),
+                new DailyStats(2, DAY_2, 4, 4)));
+        userStatsService = new UserStatsService(userStatsRepository, roleRegistry);
+        userStatsService.load();
+    }
+
+    @Test
+    void getSummary_shouldAddUpLoadedCountsWithinRange() {
+        UserStatsSummaryDTO all = userStatsService.getSummary(null, null);
+        UserStatsSummaryDTO secondDay = userStatsService.getSummary(DAY_2, DAY_2);
+
+        assertEquals(8, all.getUsers());
+        assertEquals(7, all.getActiveUsers());
+        assertEquals(1, all.getInactiveUsers());
+        assertEquals(List.of(new RoleUserStatsDTO(1, "ADMIN", 3, 2), new RoleUserStatsDTO(2, "HR", 5, 5)), all.getRoles());
+        assertEquals(List.of(new DailySignupsDTO(DAY_1, 4), new DailySignupsDTO(DAY_2, 4)), all.getSignups());
+        assertEquals(4, secondDay.getUsers());
+        assertEquals(new RoleUserStatsDTO(1, "ADMIN", 0, 0), secondDay.getRoles().getFirst());
+        verify(userStatsRepository, times(1)).findAll();
+    }
+
+    @Test
+    void recordCreated_shouldAddToRollupAndCounters() {
+        userStatsService.recordCreated(List.of(user(admin, DAY_2, true), user(admin, DAY_2, false)));
+
+        verify(userStatsRepository).add(List.of(new DailyStats(1, DAY_2, 2, 1)));
+        assertEquals(new RoleUserStatsDTO(1, "ADMIN", 2, 1), userStatsService.getSummary(DAY_2, null).getRoles().getFirst());
+    }
+
+    @Test
+    void recordUpdated_shouldMoveUserBetweenRoles() {
+        userStatsService.recordUpdated(user(hr, DAY_1, false), 1, true);
+
+        UserStatsSummaryDTO summary = userStatsService.getSummary(DAY_1, DAY_1);
+        assertEquals(List.of(new RoleUserStatsDTO(1, "ADMIN", 2, 1), new RoleUserStatsDTO(2, "HR", 2, 1)), summary.getRoles());
+        assertEquals(4, summary.getUsers());
+    }
+
+    @Test
+    void recordUpdated_shouldSkipUnchangedRoleAndActive() {
+        userStatsService.recordUpdated(user(admin, DAY_1, true), 1, true);
+
+        verify(userStatsRepository, never()).add(anyList());
+    }
+
+    @Test
+    void recordRemoved_shouldTakeOffUsersOrOnlyActiveOnes() {
+        userStatsService.recordRemoved(List.of(new DailyStats(2, DAY_2, 1, 1)), false);
+        userStatsService.recordRemoved(List.of(new DailyStats(2, DAY_2, 1, 1)), true);
+
+        assertEquals(new RoleUserStatsDTO(2, "HR", 3, 2), userStatsService.getSummary(DAY_2, DAY_2).getRoles().get(1));
+    }
+
+    @Test
+    void failedRollupUpdate_shouldLeaveCountersForReconciliation() {
+        doThrow(new RuntimeException("DB down")).when(userStatsRepository).add(anyList());
+
+        assertDoesNotThrow(() -> userStatsService.recordCreated(List.of(user(admin, DAY_1, true))));
+        assertEquals(8, userStatsService.getSummary(null, null).getUsers());
+    }
+
+    @Test
+    void reconcile_shouldRebuildRollupAndReload() {
+        when(userStatsRepository.findAll()).thenReturn(List.of(new DailyStats(1, DAY_1, 10, 10)));
+
+        userStatsService.reconcile();
+
+        verify(userStatsRepository).rebuild();
+        assertEquals(10, userStatsService.getSummary(null, null).getUsers());
+    }
+
+    @Test
+    void reconcile_shouldDropDeltasOfChangesTheRebuildCounted() throws Exception {
+        // The rebuild reads a user whose change committed while it ran; its delta waits for the reconcile
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        Thread writer = new Thread(() -> {
+            userStatsService.recordCreated(List.of(user(admin, DAY_2, true)));
+            written.complete(null);
+        });
+        doAnswer(invocation -> {
+            writer.start();
+            while (writer.getState() != Thread.State.WAITING && !written.isDone()) {
+                Thread.onSpinWait();
+            }
+            return null;
+        }).when(userStatsRepository).rebuild();
+        when(userStatsRepository.findAll()).thenReturn(List.of(new DailyStats(1, DAY_2, 1, 1)));
+
+        userStatsService.reconcile();
+        written.get(5, TimeUnit.SECONDS);
+
+        verify(userStatsRepository, never()).add(anyList());
+        assertEquals(1, userStatsService.getSummary(null, null).getUsers());
+    }
+
+    @Test
+    void getSummary_shouldRejectInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> userStatsService.getSummary(DAY_2, DAY_1));
+    }
+
+    @Test
+    void recordBulkUpdated_shouldMoveGroupsToNewRoleAndFlag() {
+        userStatsService.recordBulkUpdated(List.of(new DailyStats(1, DAY_1, 3, 2)), 2, false);
+
+        UserStatsSummaryDTO summary = userStatsService.getSummary(DAY_1, DAY_1);
+        assertEquals(List.of(new RoleUserStatsDTO(1, "ADMIN", 0, 0), new RoleUserStatsDTO(2, "HR", 4, 1)), summary.getRoles());
+    }
+
+    @Test
+    void recordedChanges_shouldWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userStatsService.recordCreated(List.of(user(admin, DAY_2, true)));
+
+            verify(userStatsRepository, never()).add(anyList());
+            assertEquals(8, userStatsService.getSummary(null, null).getUsers());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(userStatsRepository).add(List.of(new DailyStats(1, DAY_2, 1, 1)));
+            assertEquals(9, userStatsService.getSummary(null, null).getUsers());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static User user(Role role, LocalDate signupDate, boolean active) {
+        User user = new User();
+        user.setRole(role);
+        user.setActive(active);
+        user.setCreatedAt(signupDate.atTime(9, 30));
+        return user;
+    }
+}
@@ -0,0 +1,186 @@
+package com.ibs.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibs.userservice.dtos.requestDtos.UserBulkUpdateDTO;
+import com.ibs.userservice.dtos.requestDtos.UserFilterDTO;
+import com.ibs.userservice.dtos.responseDtos.UserResponseDTO;
+import com.ibs.userservice.entity.Role;
+import com.ibs.userservice.entity.User;
+import com.ibs.userservice.event.UserChangedEvent;
+import com.ibs.userservice.repository.UserRepository;
+import com.ibs.userservice.repository.UserStatsRepository.DailyStats;
+import com.ibs.userservice.repository.UserUpdateRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserUpdateServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private UserUpdateRepository userUpdateRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserUpdateService userUpdateService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userUpdateService = new UserUpdateService(userRepository, roleRegistry, userUpdateRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), eventPublisher, userStatsService, transactionManager, 3);
+
+        user = new User();
+        user.setUserId(1);
+        user.setUserName("john");
+        user.setEmail("john@example.com");
+        user.setUserPhone("9876543210");
+        user.setPasswordHash("hash");
+        user.setFullName("John Doe");
+        user.setRole(new Role(1, "ADMIN", null));
+        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void patchUser_shouldChangeOnlyPresentFields() {
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("active", false);
+        patch.put("fullName", null);
+
+        UserResponseDTO response = userUpdateService.patchUser(1, patch);
+
+        assertFalse(response.isActive());
+        assertNull(response.getFullName());
+        assertEquals("john", response.getUserName());
+        assertEquals("hash", user.getPasswordHash());
+        verifyNoInteractions(roleRegistry, passwordEncoder);
+        verify(userStatsService).recordUpdated(user, 1, true);
+        verify(eventPublisher).publishEvent(UserChangedEvent.deactivated(1));
+    }
+
+    @Test
+    void patchUser_shouldEncodePasswordAndResolveNewRole() {
+        when(passwordEncoder.encode("secret123")).thenReturn("encoded");
+        when(roleRegistry.getById(2)).thenReturn(new Role(2, "HR", null));
+
+        userUpdateService.patchUser(1, Map.of("password", "secret123", "roleId", 2));
+
+        assertEquals("encoded", user.getPasswordHash());
+        assertEquals("HR", user.getRole().getRoleName());
+        InOrder inOrder = inOrder(passwordEncoder, transactionManager, userRepository, eventPublisher);
+        inOrder.verify(passwordEncoder).encode("secret123");
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userRepository).save(user);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(eventPublisher).publishEvent(UserChangedEvent.updated(1));
+    }
+
+    @Test
+    void patchUser_shouldNotAnnounceFailedChange() {
+        when(userRepository.save(any(User.class))).thenThrow(new RuntimeException("Duplicate email"));
+
+        assertThrows(RuntimeException.class, () -> userUpdateService.patchUser(1, Map.of("email", "taken@example.com")));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher, userStatsService);
+    }
+
+    @Test
+    void patchUser_shouldRejectInvalidNullAndUnknownFields() {
+        Map<String, Object> nullEmail = new HashMap<>();
+        nullEmail.put("email", null);
+
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.patchUser(1, Map.of("email", "not-an-email")));
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.patchUser(1, nullEmail));
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.patchUser(1, Map.of("passwordHash", "x")));
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.patchUser(1, Map.of()));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void updateUsers_byIdsShouldIssueOneUpdateAndInvalidateThoseUsers() {
+        UserBulkUpdateDTO dto = new UserBulkUpdateDTO();
+        dto.setIds(List.of(1, 2, 3));
+        dto.setActive(false);
+        List<DailyStats> changed = List.of(new DailyStats(1, LocalDate.of(2025, 1, 1), 2, 2));
+        when(userUpdateRepository.sumChanged(dto.getIds(), null, null, false)).thenReturn(changed);
+        when(userUpdateRepository.findChangedIds(dto.getIds(), null, null, false)).thenReturn(List.of(1, 3));
+        when(userUpdateRepository.updateAll(dto.getIds(), null, null, false)).thenReturn(2);
+
+        assertEquals(2, userUpdateService.updateUsers(dto).getUpdated());
+        verify(userStatsService).recordBulkUpdated(changed, null, false);
+        verify(userStatsService, never()).reconcile();
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.UPDATED, Set.of(1, 2, 3)));
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.DEACTIVATED, Set.of(1, 3)));
+        verify(userRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void updateUsers_byFilterShouldInvalidateAllUsers() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setRoleId(1);
+        UserBulkUpdateDTO dto = new UserBulkUpdateDTO();
+        dto.setFilter(filter);
+        dto.setRoleId(2);
+        when(roleRegistry.findById(2)).thenReturn(Optional.of(new Role(2, "HR", null)));
+        when(userUpdateRepository.updateAll(null, filter, 2, null)).thenReturn(5);
+
+        assertEquals(5, userUpdateService.updateUsers(dto).getUpdated());
+        verify(eventPublisher).publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.UPDATED, Set.of()));
+        verify(userUpdateRepository, never()).findChangedIds(any(), any(), any(), any());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void updateUsers_shouldRejectAmbiguousOrUnboundedRequests() {
+        UserBulkUpdateDTO noChange = new UserBulkUpdateDTO();
+        noChange.setIds(List.of(1));
+
+        UserBulkUpdateDTO emptyFilter = new UserBulkUpdateDTO();
+        emptyFilter.setFilter(new UserFilterDTO());
+        emptyFilter.setActive(true);
+
+        UserBulkUpdateDTO tooMany = new UserBulkUpdateDTO();
+        tooMany.setIds(List.of(1, 2, 3, 4));
+        tooMany.setActive(true);
+
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.updateUsers(noChange));
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.updateUsers(emptyFilter));
+        assertThrows(IllegalArgumentException.class, () -> userUpdateService.updateUsers(tooMany));
+        verifyNoInteractions(userUpdateRepository);
+    }
+}
@@ -0,0 +1,32 @@
+-- A database created by ddl-auto=update before the schema moved to Flyway, with a few users. Run on every new
+-- connection, so each statement is idempotent.
+
+create table if not exists roles (
+    role_id integer not null auto_increment,
+    role_name varchar(255) not null,
+    primary key (role_id),
+    constraint UK716hgxp60ym1lifrdgp67xt5k unique (role_name)
+) engine=InnoDB;
+
+create table if not exists users (
+    user_id integer not null auto_increment,
+    user_name varchar(255) not null,
+    user_phone varchar(255) not null,
+    email varchar(255) not null,
+    password_hash varchar(255) not null,
+    full_name varchar(255),
+    active bit not null,
+    role_id integer not null,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    primary key (user_id),
+    constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email),
+    constraint UKk8d0f2n7n88w1a16yhua64onx unique (user_name),
+    constraint UK57oqbaqjqynlu1guvvc1ihudy unique (user_phone),
+    constraint FKp56c1712k691lhsyewcssf40f foreign key (role_id) references roles (role_id)
+) engine=InnoDB;
+
+insert ignore into roles (role_id, role_name) values (1, 'ADMIN');
+insert ignore into users (user_id, user_name, user_phone, email, password_hash, full_name, active, role_id, created_at)
+values (1, 'legacy1', '9000000001', 'legacy1@example.com', 'hash', 'Legacy One', true, 1, '2024-05-01 10:00:00'),
+       (2, 'legacy2', '9000000002', 'legacy2@example.com', 'hash', 'Legacy Two', false, 1, '2024-05-01 18:30:00');